@@ -1,14 +1,30 @@
 package com.example.cw1.controller;
 
 import com.example.cw1.dto.*;
+import com.example.cw1.service.AvailabilityCalendarService;
+import com.example.cw1.service.DaySchedulerService;
 import com.example.cw1.service.DeliveryPlanningService;
+import com.example.cw1.service.DispatchPriority;
 import com.example.cw1.service.DroneAvailabilityService;
+import com.example.cw1.service.FlightPathEncoder;
+import com.example.cw1.service.IdempotencyStore;
 import com.example.cw1.service.IlpDataService;
 import com.example.cw1.service.MaintenanceService;
+import com.example.cw1.service.PathEncoding;
+import com.example.cw1.service.PathSimplification;
+import com.example.cw1.service.PathSimplifier;
+import com.example.cw1.service.PlanCache;
+import com.example.cw1.service.PlanningBudget;
+import com.example.cw1.service.PlanningLanes;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -24,15 +40,30 @@ public class ApiController {
     @Autowired
     private DroneAvailabilityService droneAvailabilityService;
 
+    @Autowired
+    private AvailabilityCalendarService availabilityCalendarService;
+
     @Autowired
     private DeliveryPlanningService deliveryPlanningService;
 
+    @Autowired
+    private DaySchedulerService daySchedulerService;
+
     @Autowired
     private MaintenanceService maintenanceService;
 
     @Autowired
     private com.example.cw1.service.MaintenanceExportService maintenanceExportService;
 
+    @Autowired
+    private PathSimplifier pathSimplifier;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private PlanningLanes planningLanes;
+
     @GetMapping("/uid")
     public ResponseEntity<String> getUid() {
         return ResponseEntity.ok("s2322251");
@@ -240,25 +271,95 @@ public class ApiController {
         return ResponseEntity.ok(ids);
     }
 
+    @PostMapping("/availabilityCalendar")
+    public ResponseEntity<AvailabilityCalendarResponse> availabilityCalendar(
+            @RequestBody AvailabilityCalendarRequest request) {
+        return ResponseEntity.ok(availabilityCalendarService.calendar(request));
+    }
+
 
     @PostMapping("/calcDeliveryPath")
     public ResponseEntity<DeliveryPathResponse> calcDeliveryPath(
-            @RequestBody List<MedDispatchRec> dispatches) {
+            @RequestBody List<MedDispatchRec> dispatches,
+            @RequestParam(value = "encoding", required = false) String encoding,
+            @RequestParam(value = "simplify", required = false) String simplify,
+            @RequestParam(value = "tolerance", required = false) Double tolerance,
+            @RequestParam(value = "zoom", required = false) Integer zoom,
+            @RequestParam(value = "deadlineMs", required = false) Long deadlineMs,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "X-Dispatch-Priority", required = false) String priority) {
+
+        PlanningBudget budget = PlanningBudget.fromRequest(deadlineMs);
+        DispatchPriority lane = DispatchPriority.resolve(priority, dispatches);
+        PathEncoding pathEncoding = PathEncoding.resolve(encoding, accept);
+        PathSimplification simplification = PathSimplification.resolve(simplify, tolerance, zoom);
+        String fingerprint = "calcDeliveryPath|" + pathEncoding + "|" + simplification + "|"
+                + PlanCache.canonicalKey(dispatches);
+        DeliveryPathResponse body = idempotencyStore.execute(idempotencyKey, fingerprint, budget,
+                () -> planningLanes.run(lane, () -> {
+                    DeliveryPathResponse plan = pathSimplifier.simplify(
+                            deliveryPlanningService.calcDeliveryPath(dispatches, budget), simplification);
+                    return FlightPathEncoder.encode(plan, pathEncoding);
+                }));
+        return ResponseEntity.ok(body);
+    }
+
+    @PostMapping("/calcDeliveryQuote")
+    public ResponseEntity<DeliveryQuoteResponse> calcDeliveryQuote(
+            @RequestBody List<MedDispatchRec> dispatches,
+            @RequestParam(value = "deadlineMs", required = false) Long deadlineMs,
+            @RequestHeader(value = "X-Dispatch-Priority", required = false) String priority) {
 
+        PlanningBudget budget = PlanningBudget.fromRequest(deadlineMs);
+        DispatchPriority lane = DispatchPriority.resolve(priority, dispatches);
         return ResponseEntity.ok(
-                deliveryPlanningService.calcDeliveryPath(dispatches)
+                planningLanes.run(lane, () -> deliveryPlanningService.quoteDelivery(dispatches, budget))
         );
     }
 
-    @PostMapping("/calcDeliveryPathAsGeoJson")
-    public ResponseEntity<String> calcDeliveryPathAsGeoJson(
-            @RequestBody List<MedDispatchRec> dispatches) {
+    @PostMapping("/calcDaySchedule")
+    public ResponseEntity<DayScheduleResponse> calcDaySchedule(
+            @RequestBody List<MedDispatchRec> dispatches,
+            @RequestParam(value = "windowMinutes", required = false) Integer windowMinutes,
+            @RequestHeader(value = "X-Dispatch-Priority", required = false) String priority) {
 
+        DispatchPriority lane = DispatchPriority.resolve(priority, dispatches);
         return ResponseEntity.ok(
-                deliveryPlanningService.calcDeliveryPathAsGeoJson(dispatches)
+                planningLanes.run(lane, () -> daySchedulerService.schedule(dispatches, windowMinutes))
         );
     }
 
+    @GetMapping("/missions/{dispatchId}")
+    public ResponseEntity<MissionAssignment> mission(@PathVariable int dispatchId) {
+        MissionAssignment assignment = deliveryPlanningService.missionFor(dispatchId);
+        if (assignment == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(assignment);
+    }
+
+    @PostMapping("/calcDeliveryPathAsGeoJson")
+    public void calcDeliveryPathAsGeoJson(
+            @RequestBody List<MedDispatchRec> dispatches,
+            @RequestParam(value = "simplify", required = false) String simplify,
+            @RequestParam(value = "tolerance", required = false) Double tolerance,
+            @RequestParam(value = "zoom", required = false) Integer zoom,
+            @RequestParam(value = "deadlineMs", required = false) Long deadlineMs,
+            @RequestHeader(value = "X-Dispatch-Priority", required = false) String priority,
+            HttpServletResponse response) throws IOException {
+
+        PlanningBudget budget = PlanningBudget.fromRequest(deadlineMs);
+        DispatchPriority lane = DispatchPriority.resolve(priority, dispatches);
+        PathSimplification simplification = PathSimplification.resolve(simplify, tolerance, zoom);
+        DeliveryPathResponse plan = planningLanes.run(lane, () -> pathSimplifier.simplify(
+                deliveryPlanningService.calcDeliveryPath(dispatches, budget), simplification));
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        deliveryPlanningService.writeDeliveryPathAsGeoJson(plan, response.getOutputStream());
+    }
+
 
     @PostMapping("/distanceTo")
     public ResponseEntity<Double> distanceTo(@RequestBody DistanceRequest req) {
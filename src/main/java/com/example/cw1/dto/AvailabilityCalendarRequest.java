@@ -0,0 +1,65 @@
+package com.example.cw1.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+public class AvailabilityCalendarRequest {
+
+    private long startEpochDay = TemporalFields.MISSING;
+    private int days = 14;
+    private long fromNanos = TemporalFields.MISSING;
+    private long toNanos = TemporalFields.MISSING;
+    private MedDispatchRequirements requirements;
+
+    public String getStartDate() { return TemporalFields.formatDate(startEpochDay); }
+
+    public void setStartDate(String startDate) { this.startEpochDay = TemporalFields.parseEpochDay(startDate); }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public String getFrom() { return TemporalFields.formatTime(fromNanos); }
+
+    public void setFrom(String from) { this.fromNanos = TemporalFields.parseNanoOfDay(from); }
+
+    public String getTo() { return TemporalFields.formatTime(toNanos); }
+
+    public void setTo(String to) { this.toNanos = TemporalFields.parseNanoOfDay(to); }
+
+    public MedDispatchRequirements getRequirements() {
+        return requirements;
+    }
+
+    public void setRequirements(MedDispatchRequirements requirements) {
+        this.requirements = requirements;
+    }
+
+    @JsonProperty("startDate")
+    @JsonDeserialize(using = TemporalFields.EpochDayDeserializer.class)
+    private void readStartDate(long epochDay) { this.startEpochDay = epochDay; }
+
+    @JsonProperty("from")
+    @JsonDeserialize(using = TemporalFields.NanoOfDayDeserializer.class)
+    private void readFrom(long nanoOfDay) { this.fromNanos = nanoOfDay; }
+
+    @JsonProperty("to")
+    @JsonDeserialize(using = TemporalFields.NanoOfDayDeserializer.class)
+    private void readTo(long nanoOfDay) { this.toNanos = nanoOfDay; }
+
+    public long startEpochDay() {
+        return startEpochDay;
+    }
+
+    public long fromNanoOfDay() {
+        return fromNanos;
+    }
+
+    public long toNanoOfDay() {
+        return toNanos;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.cw1.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AvailabilityCalendarResponse {
+
+    private List<CalendarWindow> windows = new ArrayList<>();
+    private List<DroneCalendar> drones = new ArrayList<>();
+
+    public List<CalendarWindow> getWindows() {
+        return windows;
+    }
+
+    public void setWindows(List<CalendarWindow> windows) {
+        this.windows = windows;
+    }
+
+    public List<DroneCalendar> getDrones() {
+        return drones;
+    }
+
+    public void setDrones(List<DroneCalendar> drones) {
+        this.drones = drones;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.cw1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public class CalendarWindow {
+
+    private String date;
+    private String from;
+    private String to;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> droneIds;
+
+    public CalendarWindow() {
+    }
+
+    public CalendarWindow(String date, String from, String to) {
+        this.date = date;
+        this.from = from;
+        this.to = to;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public List<String> getDroneIds() {
+        return droneIds;
+    }
+
+    public void setDroneIds(List<String> droneIds) {
+        this.droneIds = droneIds;
+    }
+}
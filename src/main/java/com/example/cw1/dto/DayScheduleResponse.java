@@ -0,0 +1,71 @@
+package com.example.cw1.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DayScheduleResponse {
+
+    private List<ScheduledWindow> schedule = new ArrayList<>();
+    private List<Integer> unassignedDispatchIds = new ArrayList<>();
+    private List<DroneUtilization> utilization = new ArrayList<>();
+    private int totalDispatches;
+    private int assignedDispatches;
+    private int dronesUsed;
+    private double averageLoadFactor;
+
+    public List<ScheduledWindow> getSchedule() {
+        return schedule;
+    }
+
+    public void setSchedule(List<ScheduledWindow> schedule) {
+        this.schedule = schedule;
+    }
+
+    public List<Integer> getUnassignedDispatchIds() {
+        return unassignedDispatchIds;
+    }
+
+    public void setUnassignedDispatchIds(List<Integer> unassignedDispatchIds) {
+        this.unassignedDispatchIds = unassignedDispatchIds;
+    }
+
+    public List<DroneUtilization> getUtilization() {
+        return utilization;
+    }
+
+    public void setUtilization(List<DroneUtilization> utilization) {
+        this.utilization = utilization;
+    }
+
+    public int getTotalDispatches() {
+        return totalDispatches;
+    }
+
+    public void setTotalDispatches(int totalDispatches) {
+        this.totalDispatches = totalDispatches;
+    }
+
+    public int getAssignedDispatches() {
+        return assignedDispatches;
+    }
+
+    public void setAssignedDispatches(int assignedDispatches) {
+        this.assignedDispatches = assignedDispatches;
+    }
+
+    public int getDronesUsed() {
+        return dronesUsed;
+    }
+
+    public void setDronesUsed(int dronesUsed) {
+        this.dronesUsed = dronesUsed;
+    }
+
+    public double getAverageLoadFactor() {
+        return averageLoadFactor;
+    }
+
+    public void setAverageLoadFactor(double averageLoadFactor) {
+        this.averageLoadFactor = averageLoadFactor;
+    }
+}
@@ -1,12 +1,31 @@
 package com.example.cw1.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 
 public class DeliveryFlightDto {
 
     private int deliveryId;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<Position> flightPath;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String encoding;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String encodedPath;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Position> waypoints;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double stepSize;
+
+    @JsonIgnore
+    private Position deliveryPoint;
+
     public int getDeliveryId() {
         return deliveryId;
     }
@@ -22,4 +41,44 @@ public class DeliveryFlightDto {
     public void setFlightPath(List<Position> flightPath) {
         this.flightPath = flightPath;
     }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
+    public String getEncodedPath() {
+        return encodedPath;
+    }
+
+    public void setEncodedPath(String encodedPath) {
+        this.encodedPath = encodedPath;
+    }
+
+    public List<Position> getWaypoints() {
+        return waypoints;
+    }
+
+    public void setWaypoints(List<Position> waypoints) {
+        this.waypoints = waypoints;
+    }
+
+    public Double getStepSize() {
+        return stepSize;
+    }
+
+    public void setStepSize(Double stepSize) {
+        this.stepSize = stepSize;
+    }
+
+    public Position getDeliveryPoint() {
+        return deliveryPoint;
+    }
+
+    public void setDeliveryPoint(Position deliveryPoint) {
+        this.deliveryPoint = deliveryPoint;
+    }
 }
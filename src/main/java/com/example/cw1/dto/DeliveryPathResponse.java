@@ -1,5 +1,6 @@
 package com.example.cw1.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 
 public class DeliveryPathResponse {
@@ -9,6 +10,12 @@ public class DeliveryPathResponse {
     private List<DronePathDto> dronePaths;
     private MaintenancePlan maintenancePlan;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String failedConstraint;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String planStatus;
+
     public double getTotalCost() {
         return totalCost;
     }
@@ -40,4 +47,20 @@ public class DeliveryPathResponse {
     public void setMaintenancePlan(MaintenancePlan maintenancePlan) {
         this.maintenancePlan = maintenancePlan;
     }
+
+    public String getFailedConstraint() {
+        return failedConstraint;
+    }
+
+    public void setFailedConstraint(String failedConstraint) {
+        this.failedConstraint = failedConstraint;
+    }
+
+    public String getPlanStatus() {
+        return planStatus;
+    }
+
+    public void setPlanStatus(String planStatus) {
+        this.planStatus = planStatus;
+    }
 }
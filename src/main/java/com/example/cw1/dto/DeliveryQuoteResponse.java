@@ -0,0 +1,87 @@
+package com.example.cw1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeliveryQuoteResponse {
+
+    private boolean feasible;
+    private String droneId;
+    private double totalCost;
+    private int totalMoves;
+    private List<Integer> movesPerDelivery = new ArrayList<>();
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> droneIds;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String failedConstraint;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String planStatus;
+
+    public boolean isFeasible() {
+        return feasible;
+    }
+
+    public void setFeasible(boolean feasible) {
+        this.feasible = feasible;
+    }
+
+    public String getDroneId() {
+        return droneId;
+    }
+
+    public void setDroneId(String droneId) {
+        this.droneId = droneId;
+    }
+
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    public void setTotalCost(double totalCost) {
+        this.totalCost = totalCost;
+    }
+
+    public int getTotalMoves() {
+        return totalMoves;
+    }
+
+    public void setTotalMoves(int totalMoves) {
+        this.totalMoves = totalMoves;
+    }
+
+    public List<Integer> getMovesPerDelivery() {
+        return movesPerDelivery;
+    }
+
+    public void setMovesPerDelivery(List<Integer> movesPerDelivery) {
+        this.movesPerDelivery = movesPerDelivery;
+    }
+
+    public String getFailedConstraint() {
+        return failedConstraint;
+    }
+
+    public void setFailedConstraint(String failedConstraint) {
+        this.failedConstraint = failedConstraint;
+    }
+
+    public List<String> getDroneIds() {
+        return droneIds;
+    }
+
+    public void setDroneIds(List<String> droneIds) {
+        this.droneIds = droneIds;
+    }
+
+    public String getPlanStatus() {
+        return planStatus;
+    }
+
+    public void setPlanStatus(String planStatus) {
+        this.planStatus = planStatus;
+    }
+}
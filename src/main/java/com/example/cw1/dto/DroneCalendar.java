@@ -0,0 +1,33 @@
+package com.example.cw1.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DroneCalendar {
+
+    private String droneId;
+    private List<CalendarWindow> freeWindows = new ArrayList<>();
+
+    public DroneCalendar() {
+    }
+
+    public DroneCalendar(String droneId) {
+        this.droneId = droneId;
+    }
+
+    public String getDroneId() {
+        return droneId;
+    }
+
+    public void setDroneId(String droneId) {
+        this.droneId = droneId;
+    }
+
+    public List<CalendarWindow> getFreeWindows() {
+        return freeWindows;
+    }
+
+    public void setFreeWindows(List<CalendarWindow> freeWindows) {
+        this.freeWindows = freeWindows;
+    }
+}
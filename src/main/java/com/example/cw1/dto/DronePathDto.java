@@ -1,5 +1,6 @@
 package com.example.cw1.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 
 public class DronePathDto {
@@ -7,6 +8,9 @@ public class DronePathDto {
     private String droneId;
     private List<DeliveryFlightDto> deliveries;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ServicePoint servicePoint;
+
     public String getDroneId() {
         return droneId;
     }
@@ -22,4 +26,12 @@ public class DronePathDto {
     public void setDeliveries(List<DeliveryFlightDto> deliveries) {
         this.deliveries = deliveries;
     }
+
+    public ServicePoint getServicePoint() {
+        return servicePoint;
+    }
+
+    public void setServicePoint(ServicePoint servicePoint) {
+        this.servicePoint = servicePoint;
+    }
 }
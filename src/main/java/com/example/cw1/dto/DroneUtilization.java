@@ -0,0 +1,50 @@
+package com.example.cw1.dto;
+
+public class DroneUtilization {
+
+    private String droneId;
+    private int windows;
+    private int dispatches;
+    private double load;
+    private double loadFactor;
+
+    public String getDroneId() {
+        return droneId;
+    }
+
+    public void setDroneId(String droneId) {
+        this.droneId = droneId;
+    }
+
+    public int getWindows() {
+        return windows;
+    }
+
+    public void setWindows(int windows) {
+        this.windows = windows;
+    }
+
+    public int getDispatches() {
+        return dispatches;
+    }
+
+    public void setDispatches(int dispatches) {
+        this.dispatches = dispatches;
+    }
+
+    public double getLoad() {
+        return load;
+    }
+
+    public void setLoad(double load) {
+        this.load = load;
+    }
+
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+
+    public void setLoadFactor(double loadFactor) {
+        this.loadFactor = loadFactor;
+    }
+}
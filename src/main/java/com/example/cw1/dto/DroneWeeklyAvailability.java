@@ -1,8 +1,10 @@
 package com.example.cw1.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalTime;
 
 public class DroneWeeklyAvailability {
@@ -10,11 +12,9 @@ public class DroneWeeklyAvailability {
     @JsonProperty("day")
     private DayOfWeek day;
 
-    @JsonProperty("from")
-    private String from;  // "HH:mm"
+    private long fromNanos = TemporalFields.MISSING;  // "HH:mm"
 
-    @JsonProperty("to")
-    private String to;    // "HH:mm"
+    private long toNanos = TemporalFields.MISSING;    // "HH:mm"
 
     public DayOfWeek getDay() {
         return day;
@@ -25,34 +25,84 @@ public class DroneWeeklyAvailability {
     }
 
     public String getFrom() {
-        return from;
+        return TemporalFields.formatTime(fromNanos);
     }
 
     public void setFrom(String from) {
-        this.from = from;
+        this.fromNanos = TemporalFields.parseNanoOfDay(from);
     }
 
     public String getTo() {
-        return to;
+        return TemporalFields.formatTime(toNanos);
     }
 
     public void setTo(String to) {
-        this.to = to;
+        this.toNanos = TemporalFields.parseNanoOfDay(to);
+    }
+
+    @JsonProperty("from")
+    @JsonDeserialize(using = TemporalFields.LenientNanoOfDayDeserializer.class)
+    private void readFrom(long fromNanos) {
+        this.fromNanos = fromNanos;
+    }
+
+    @JsonProperty("to")
+    @JsonDeserialize(using = TemporalFields.LenientNanoOfDayDeserializer.class)
+    private void readTo(long toNanos) {
+        this.toNanos = toNanos;
+    }
+
+    /**
+     * False when either bound is absent, or was unreadable in the ILP listing.
+     */
+    public boolean isComplete() {
+        return fromNanos != TemporalFields.MISSING && toNanos != TemporalFields.MISSING;
     }
 
+    /**
+     * True when the slot covers some time: it has a day, both bounds, and starts before it ends. This is
+     * the rule every availability check applies before {@link #matches(DayOfWeek, long)}, which covers
+     * {@code from <= time < to} to the nanosecond.
+     */
+    public boolean offersTime() {
+        return day != null && isComplete() && fromNanos < toNanos;
+    }
+
+    /**
+     * Start as nano of day, or {@link TemporalFields#MISSING}.
+     */
+    public long fromNanoOfDay() {
+        return fromNanos;
+    }
+
+    /**
+     * End as nano of day, or {@link TemporalFields#MISSING}.
+     */
+    public long toNanoOfDay() {
+        return toNanos;
+    }
 
     public LocalTime getFromAsLocalTime() {
-        return LocalTime.parse(from);
+        return LocalTime.ofNanoOfDay(require(fromNanos, "start"));
     }
 
     public LocalTime getToAsLocalTime() {
-        return LocalTime.parse(to);
+        return LocalTime.ofNanoOfDay(require(toNanos, "end"));
+    }
+
+    public boolean matches(DayOfWeek dayOfWeek, long nanoOfDay) {
+        if (day != dayOfWeek) return false;
+        return nanoOfDay >= require(fromNanos, "start") && nanoOfDay < require(toNanos, "end");
     }
 
+    public boolean matches(LocalDate date, LocalTime time) {
+        return matches(date.getDayOfWeek(), time.toNanoOfDay());
+    }
 
-    public boolean matches(java.time.LocalDate date, java.time.LocalTime time) {
-        if (day != date.getDayOfWeek()) return false;
-        return !time.isBefore(getFromAsLocalTime()) &&
-                time.isBefore(getToAsLocalTime());
+    private long require(long nanos, String bound) {
+        if (nanos == TemporalFields.MISSING) {
+            throw new IllegalArgumentException("Availability slot on " + day + " has no " + bound + " time");
+        }
+        return nanos;
     }
 }
@@ -1,6 +1,7 @@
 package com.example.cw1.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -8,12 +9,16 @@ import java.time.LocalTime;
 public class MedDispatchRec {
 
     private int id;
-    private String date;
-    private String time;
+    private long epochDay = TemporalFields.MISSING;
+    private long nanoOfDay = TemporalFields.MISSING;
 
     @JsonProperty("requirements")
     private MedDispatchRequirements requirements;
 
+    private Position delivery;
+
+    private String priority;
+
     public int getId() {
         return id;
     }
@@ -22,13 +27,21 @@ public class MedDispatchRec {
         this.id = id;
     }
 
-    public String getDate() { return date; }
+    public String getDate() { return TemporalFields.formatDate(epochDay); }
+
+    public void setDate(String date) { this.epochDay = TemporalFields.parseEpochDay(date); }
+
+    public String getTime() { return TemporalFields.formatTime(nanoOfDay); }
 
-    public void setDate(String date) { this.date = date; }
+    public void setTime(String time) { this.nanoOfDay = TemporalFields.parseNanoOfDay(time); }
 
-    public String getTime() { return time; }
+    @JsonProperty("date")
+    @JsonDeserialize(using = TemporalFields.EpochDayDeserializer.class)
+    private void readDate(long epochDay) { this.epochDay = epochDay; }
 
-    public void setTime(String time) { this.time = time; }
+    @JsonProperty("time")
+    @JsonDeserialize(using = TemporalFields.NanoOfDayDeserializer.class)
+    private void readTime(long nanoOfDay) { this.nanoOfDay = nanoOfDay; }
 
     public MedDispatchRequirements getRequirements() {
         return requirements;
@@ -38,6 +51,22 @@ public class MedDispatchRec {
         this.requirements = requirements;
     }
 
+    public Position getDelivery() {
+        return delivery;
+    }
+
+    public void setDelivery(Position delivery) {
+        this.delivery = delivery;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
     public double requiredCapacity() {
         return requirements != null ? requirements.getCapacity() : 0;
     }
@@ -54,12 +83,26 @@ public class MedDispatchRec {
         return requirements != null ? requirements.getMaxCost() : null;
     }
 
+    public long epochDay() {
+        if (epochDay == TemporalFields.MISSING) {
+            throw new IllegalArgumentException("Dispatch " + id + " has no date");
+        }
+        return epochDay;
+    }
+
+    public long nanoOfDay() {
+        if (nanoOfDay == TemporalFields.MISSING) {
+            throw new IllegalArgumentException("Dispatch " + id + " has no time");
+        }
+        return nanoOfDay;
+    }
+
     public LocalDate getDateAsLocalDate() {
-        return LocalDate.parse(date);
+        return LocalDate.ofEpochDay(epochDay());
     }
 
     public LocalTime getTimeAsLocalTime() {
-        return LocalTime.parse(time);
+        return LocalTime.ofNanoOfDay(nanoOfDay());
     }
 }
 
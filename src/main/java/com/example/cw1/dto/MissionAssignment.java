@@ -0,0 +1,53 @@
+package com.example.cw1.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MissionAssignment {
+
+    private long planId;
+    private List<Integer> dispatchIds = new ArrayList<>();
+    private String droneId;
+    private String riskLevel;
+    private String issuedDroneId;
+
+    public long getPlanId() {
+        return planId;
+    }
+
+    public void setPlanId(long planId) {
+        this.planId = planId;
+    }
+
+    public List<Integer> getDispatchIds() {
+        return dispatchIds;
+    }
+
+    public void setDispatchIds(List<Integer> dispatchIds) {
+        this.dispatchIds = dispatchIds;
+    }
+
+    public String getDroneId() {
+        return droneId;
+    }
+
+    public void setDroneId(String droneId) {
+        this.droneId = droneId;
+    }
+
+    public String getRiskLevel() {
+        return riskLevel;
+    }
+
+    public void setRiskLevel(String riskLevel) {
+        this.riskLevel = riskLevel;
+    }
+
+    public String getIssuedDroneId() {
+        return issuedDroneId;
+    }
+
+    public void setIssuedDroneId(String issuedDroneId) {
+        this.issuedDroneId = issuedDroneId;
+    }
+}
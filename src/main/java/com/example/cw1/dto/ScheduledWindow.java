@@ -0,0 +1,71 @@
+package com.example.cw1.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScheduledWindow {
+
+    private String date;
+    private String windowStart;
+    private String windowEnd;
+    private String droneId;
+    private List<Integer> dispatchIds = new ArrayList<>();
+    private double load;
+    private double capacity;
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public String getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(String windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public String getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(String windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public String getDroneId() {
+        return droneId;
+    }
+
+    public void setDroneId(String droneId) {
+        this.droneId = droneId;
+    }
+
+    public List<Integer> getDispatchIds() {
+        return dispatchIds;
+    }
+
+    public void setDispatchIds(List<Integer> dispatchIds) {
+        this.dispatchIds = dispatchIds;
+    }
+
+    public double getLoad() {
+        return load;
+    }
+
+    public void setLoad(double load) {
+        this.load = load;
+    }
+
+    public double getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(double capacity) {
+        this.capacity = capacity;
+    }
+}
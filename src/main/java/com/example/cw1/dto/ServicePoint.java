@@ -0,0 +1,41 @@
+package com.example.cw1.dto;
+
+public class ServicePoint {
+
+    private String name;
+    private Integer id;
+    private Position location;
+
+    public ServicePoint() {
+    }
+
+    public ServicePoint(String name, Integer id, Position location) {
+        this.name = name;
+        this.id = id;
+        this.location = location;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Position getLocation() {
+        return location;
+    }
+
+    public void setLocation(Position location) {
+        this.location = location;
+    }
+}
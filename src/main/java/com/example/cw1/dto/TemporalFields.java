@@ -0,0 +1,151 @@
+package com.example.cw1.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Compact primitive forms of the ISO dates and times carried by dispatches and availability slots:
+ * a date is its epoch day, a time its nano of day, and {@link #MISSING} stands for an absent value.
+ * The Jackson deserializers parse once while the request body is read, so malformed values are
+ * rejected there rather than deep inside availability checks. Data fetched from ILP is read with
+ * {@link LenientNanoOfDayDeserializer} instead: one bad slot must not fail the whole fleet listing.
+ */
+public final class TemporalFields {
+
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private TemporalFields() {
+    }
+
+    public static long parseEpochDay(String value) {
+        if (value == null) {
+            return MISSING;
+        }
+        try {
+            return LocalDate.parse(value).toEpochDay();
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid date '" + value + "', expected yyyy-MM-dd", e);
+        }
+    }
+
+    public static long parseNanoOfDay(String value) {
+        if (value == null) {
+            return MISSING;
+        }
+        try {
+            return LocalTime.parse(value).toNanoOfDay();
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid time '" + value + "', expected HH:mm", e);
+        }
+    }
+
+    public static String formatDate(long epochDay) {
+        return epochDay == MISSING ? null : LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    public static String formatTime(long nanoOfDay) {
+        return nanoOfDay == MISSING ? null : LocalTime.ofNanoOfDay(nanoOfDay).toString();
+    }
+
+    /**
+     * Minute of the day, or -1 when the time is not a whole minute.
+     */
+    public static int minuteOfDay(long nanoOfDay) {
+        return nanoOfDay % NANOS_PER_MINUTE == 0 ? (int) (nanoOfDay / NANOS_PER_MINUTE) : -1;
+    }
+
+    /**
+     * Number of whole minutes {@code m} with {@code m:00} strictly before the given time.
+     */
+    public static int ceilMinutes(long nanoOfDay) {
+        return (int) ((nanoOfDay + NANOS_PER_MINUTE - 1) / NANOS_PER_MINUTE);
+    }
+
+    public static final class EpochDayDeserializer extends StdDeserializer<Long> {
+
+        public EpochDayDeserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            String text = text(p, ctxt, LocalDate.class);
+            try {
+                return parseEpochDay(text);
+            } catch (IllegalArgumentException e) {
+                throw ctxt.weirdStringException(text, LocalDate.class, "expected yyyy-MM-dd");
+            }
+        }
+
+        @Override
+        public Long getNullValue(DeserializationContext ctxt) {
+            return MISSING;
+        }
+    }
+
+    public static final class NanoOfDayDeserializer extends StdDeserializer<Long> {
+
+        public NanoOfDayDeserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            String text = text(p, ctxt, LocalTime.class);
+            try {
+                return parseNanoOfDay(text);
+            } catch (IllegalArgumentException e) {
+                throw ctxt.weirdStringException(text, LocalTime.class, "expected HH:mm");
+            }
+        }
+
+        @Override
+        public Long getNullValue(DeserializationContext ctxt) {
+            return MISSING;
+        }
+    }
+
+    /**
+     * Reads a malformed or non-string time as {@link #MISSING}, leaving the slot incomplete.
+     */
+    public static final class LenientNanoOfDayDeserializer extends StdDeserializer<Long> {
+
+        public LenientNanoOfDayDeserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.VALUE_STRING) {
+                p.skipChildren();
+                return MISSING;
+            }
+            try {
+                return parseNanoOfDay(p.getText());
+            } catch (IllegalArgumentException e) {
+                return MISSING;
+            }
+        }
+
+        @Override
+        public Long getNullValue(DeserializationContext ctxt) {
+            return MISSING;
+        }
+    }
+
+    private static String text(JsonParser p, DeserializationContext ctxt, Class<?> target) throws IOException {
+        if (p.currentToken() != JsonToken.VALUE_STRING) {
+            throw ctxt.wrongTokenException(p, target, JsonToken.VALUE_STRING, "expected a string");
+        }
+        return p.getText();
+    }
+}
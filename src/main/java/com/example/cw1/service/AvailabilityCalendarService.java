@@ -0,0 +1,166 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answers "which drones are free between these times on each of the next N days" in one pass over the
+ * fleet's {@link SlotIntervalTree}: each weekday in the range is queried once and the result is reused for
+ * every date falling on it.
+ */
+@Service
+public class AvailabilityCalendarService {
+
+    static final int MAX_DAYS = 62;
+
+    @Autowired
+    private IlpDataService ilpDataService;
+
+    private volatile SlotIntervalTree slots;
+
+    public AvailabilityCalendarResponse calendar(AvailabilityCalendarRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Calendar request body is required");
+        }
+        if (request.getDays() < 1 || request.getDays() > MAX_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_DAYS);
+        }
+        long from = request.fromNanoOfDay();
+        long to = request.toNanoOfDay();
+        if (from == TemporalFields.MISSING || to == TemporalFields.MISSING) {
+            throw new IllegalArgumentException("from and to are required");
+        }
+        if (from >= to) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        long startDay = request.startEpochDay() == TemporalFields.MISSING
+                ? LocalDate.now().toEpochDay()
+                : request.startEpochDay();
+
+        AvailabilityCalendarResponse response = new AvailabilityCalendarResponse();
+        Drone[] drones = ilpDataService.getDrones();
+        if (drones == null) {
+            drones = new Drone[0];
+        }
+        SlotIntervalTree tree = slotsFor(drones);
+        boolean[] eligible = eligible(drones, request.getRequirements());
+
+        List<DroneCalendar> calendars = new ArrayList<>();
+        DroneCalendar[] byDrone = new DroneCalendar[drones.length];
+        for (int i = 0; i < drones.length; i++) {
+            if (eligible[i]) {
+                byDrone[i] = new DroneCalendar(drones[i].getId());
+                calendars.add(byDrone[i]);
+            }
+        }
+
+        long[][][] weekdays = new long[7][][];
+        String fromText = TemporalFields.formatTime(from);
+        String toText = TemporalFields.formatTime(to);
+        for (int d = 0; d < request.getDays(); d++) {
+            long epochDay = startDay + d;
+            int weekday = FleetAvailability.dayIndex(epochDay);
+            if (weekdays[weekday] == null) {
+                weekdays[weekday] = freeTime(tree, eligible, weekday, from, to);
+            }
+            long[][] free = weekdays[weekday];
+            String date = TemporalFields.formatDate(epochDay);
+
+            CalendarWindow window = new CalendarWindow(date, fromText, toText);
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < drones.length; i++) {
+                if (free[i] == null) {
+                    continue;
+                }
+                if (free[i].length == 2 && free[i][0] == from && free[i][1] == to) {
+                    ids.add(drones[i].getId());
+                }
+                for (int k = 0; k < free[i].length; k += 2) {
+                    byDrone[i].getFreeWindows().add(new CalendarWindow(date,
+                            TemporalFields.formatTime(free[i][k]), TemporalFields.formatTime(free[i][k + 1])));
+                }
+            }
+            window.setDroneIds(ids);
+            response.getWindows().add(window);
+        }
+        response.setDrones(calendars);
+        return response;
+    }
+
+    /**
+     * The slot tree is built once per fleet version, like the availability bitmaps.
+     */
+    private SlotIntervalTree slotsFor(Drone[] drones) {
+        long version = FleetFingerprint.of(drones);
+        SlotIntervalTree current = slots;
+        if (current == null || current.version() != version || current.fleetSize() != drones.length) {
+            current = SlotIntervalTree.build(drones, version);
+            slots = current;
+        }
+        return current;
+    }
+
+    private static boolean[] eligible(Drone[] drones, MedDispatchRequirements requirements) {
+        double capacity = requirements != null ? requirements.getCapacity() : 0;
+        boolean cooling = requirements != null && requirements.isCooling();
+        boolean heating = requirements != null && requirements.isHeating();
+        boolean[] eligible = new boolean[drones.length];
+        for (int i = 0; i < drones.length; i++) {
+            DroneCapability cap = drones[i] == null ? null : drones[i].getCapability();
+            eligible[i] = cap != null && cap.supportsCapacity(capacity) && cap.supportsTemperature(cooling, heating);
+        }
+        return eligible;
+    }
+
+    /**
+     * Per drone, the merged free intervals within {@code [from, to)} on the given weekday as flat
+     * {@code [start, end, start, end, ...]} nano-of-day pairs, or null when the drone is not free then.
+     */
+    private static long[][] freeTime(SlotIntervalTree tree, boolean[] eligible, int weekday, long from, long to) {
+        int n = eligible.length;
+        long base = weekday * SlotIntervalTree.NANOS_PER_DAY;
+        long[][] free = new long[n][];
+        int[] used = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (eligible[i] && tree.isUnrestricted(i)) {
+                free[i] = new long[]{from, to};
+                used[i] = 2;
+            }
+        }
+        // slots arrive in start order, so each drone's intervals only ever extend or follow the last one
+        tree.overlapping(base + from, base + to, (drone, start, end) -> {
+            if (!eligible[drone]) {
+                return;
+            }
+            long s = Math.max(start - base, from);
+            long e = Math.min(end - base, to);
+            long[] intervals = free[drone];
+            int k = used[drone];
+            if (intervals != null && k > 0 && s <= intervals[k - 1]) {
+                intervals[k - 1] = Math.max(intervals[k - 1], e);
+                return;
+            }
+            if (intervals == null) {
+                intervals = new long[4];
+            } else if (k == intervals.length) {
+                intervals = Arrays.copyOf(intervals, k * 2);
+            }
+            intervals[k] = s;
+            intervals[k + 1] = e;
+            free[drone] = intervals;
+            used[drone] = k + 2;
+        });
+        for (int i = 0; i < n; i++) {
+            if (free[i] != null && free[i].length != used[i]) {
+                free[i] = Arrays.copyOf(free[i], used[i]);
+            }
+        }
+        return free;
+    }
+}
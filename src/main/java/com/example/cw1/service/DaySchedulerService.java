@@ -0,0 +1,244 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Schedules a whole day's dispatches at once. Dispatches are grouped into fixed time windows; within a
+ * window each drone flies at most one route, so the window is a bin-packing problem over the drones
+ * available at every dispatch time it takes. Every route must also pass the planner's move and cost limits
+ * ({@link DeliveryPlanningService#routeCheck}), and, as in planning, HIGH maintenance risk drones are used
+ * only when no other drone can take a dispatch. Windows do not share drones' capacity and are planned in
+ * parallel, then merged into one schedule with utilization figures.
+ */
+@Service
+public class DaySchedulerService {
+
+    static final int DEFAULT_WINDOW_MINUTES = 60;
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    @Autowired
+    private IlpDataService ilpDataService;
+
+    @Autowired
+    private DroneAvailabilityService droneAvailabilityService;
+
+    @Autowired
+    private DeliveryPlanningService deliveryPlanningService;
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    public DayScheduleResponse schedule(List<MedDispatchRec> dispatches, Integer windowMinutes) {
+        int window = windowMinutes == null ? DEFAULT_WINDOW_MINUTES : windowMinutes;
+        if (window < 1 || window > FleetAvailability.MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("windowMinutes must be between 1 and " + FleetAvailability.MINUTES_PER_DAY);
+        }
+        DayScheduleResponse response = new DayScheduleResponse();
+        if (dispatches == null || dispatches.isEmpty()) {
+            return response;
+        }
+        Drone[] fetched = ilpDataService.getDrones();
+        Drone[] drones = fetched == null ? new Drone[0] : fetched;
+
+        // window start as minutes since the epoch, mapped to positions in the dispatch list
+        TreeMap<Long, List<Integer>> windows = new TreeMap<>();
+        for (int d = 0; d < dispatches.size(); d++) {
+            MedDispatchRec rec = dispatches.get(d);
+            long minute = rec.nanoOfDay() / NANOS_PER_MINUTE;
+            long start = rec.epochDay() * FleetAvailability.MINUTES_PER_DAY + minute / window * window;
+            windows.computeIfAbsent(start, k -> new ArrayList<>()).add(d);
+        }
+        // resolved once for the whole day: the fleet is fingerprinted once, not once per dispatch
+        int[][] eligible = droneAvailabilityService.availableIndicesEach(drones, dispatches);
+        boolean[] highRisk = highRisk(drones);
+
+        Stream<Map.Entry<Long, List<Integer>>> stream = windows.size() > 1
+                ? windows.entrySet().parallelStream()
+                : windows.entrySet().stream();
+        List<WindowPlan> plans = stream
+                .map(e -> planWindow(e.getKey(), window, e.getValue(), dispatches, eligible, drones, highRisk))
+                .toList();
+
+        Map<Integer, DroneUtilization> utilization = new TreeMap<>();
+        double loadFactorSum = 0;
+        int loadFactorCount = 0;
+        for (WindowPlan plan : plans) {
+            response.getSchedule().addAll(plan.routes());
+            response.getUnassignedDispatchIds().addAll(plan.unassigned());
+            for (int r = 0; r < plan.routes().size(); r++) {
+                ScheduledWindow route = plan.routes().get(r);
+                DroneUtilization u = utilization.computeIfAbsent(plan.droneIndices().get(r), i -> {
+                    DroneUtilization created = new DroneUtilization();
+                    created.setDroneId(route.getDroneId());
+                    return created;
+                });
+                u.setWindows(u.getWindows() + 1);
+                u.setDispatches(u.getDispatches() + route.getDispatchIds().size());
+                u.setLoad(u.getLoad() + route.getLoad());
+                if (route.getCapacity() > 0) {
+                    double factor = route.getLoad() / route.getCapacity();
+                    // running mean over the windows this drone flies
+                    u.setLoadFactor(u.getLoadFactor() + (factor - u.getLoadFactor()) / u.getWindows());
+                    loadFactorSum += factor;
+                    loadFactorCount++;
+                }
+            }
+        }
+        response.setUtilization(new ArrayList<>(utilization.values()));
+        response.setTotalDispatches(dispatches.size());
+        response.setAssignedDispatches(dispatches.size() - response.getUnassignedDispatchIds().size());
+        response.setDronesUsed(utilization.size());
+        response.setAverageLoadFactor(loadFactorCount == 0 ? 0 : loadFactorSum / loadFactorCount);
+        return response;
+    }
+
+    /**
+     * Best-fit decreasing: the largest dispatches are placed first, each into the open route it leaves
+     * least room in and whose drone can still fly it within its move and cost limits. A new route is opened
+     * only when no open route fits, on the idle eligible drone that can fly the dispatch alone, preferring
+     * drones that are not HIGH risk, then the fewest temperature controls the dispatch does not need
+     * (keeping those drones for dispatches that do), then the smallest capacity.
+     */
+    private WindowPlan planWindow(long startMinute,
+                                  int window,
+                                  List<Integer> members,
+                                  List<MedDispatchRec> dispatches,
+                                  int[][] eligibleByDispatch,
+                                  Drone[] drones,
+                                  boolean[] highRisk) {
+        List<Integer> ordered = new ArrayList<>(members);
+        ordered.sort(Comparator.comparingDouble((Integer d) -> dispatches.get(d).requiredCapacity()).reversed()
+                .thenComparingInt(d -> dispatches.get(d).getId()));
+
+        Map<Integer, ScheduledWindow> open = new LinkedHashMap<>();
+        Map<Integer, List<MedDispatchRec>> batches = new HashMap<>();
+        List<Integer> unassigned = new ArrayList<>();
+        for (int d : ordered) {
+            MedDispatchRec rec = dispatches.get(d);
+            int[] eligible = eligibleByDispatch[d];
+            double needed = rec.requiredCapacity();
+
+            int chosen = -1;
+            double bestRoom = Double.POSITIVE_INFINITY;
+            for (int i : eligible) {
+                ScheduledWindow route = open.get(i);
+                if (route == null || route.getDispatchIds().size() >= DeliveryPlanningService.MAX_DELIVERIES_PER_ROUTE) {
+                    continue;
+                }
+                double room = route.getCapacity() - route.getLoad() - needed;
+                if (room >= 0 && room < bestRoom
+                        && deliveryPlanningService.routeCheck(with(batches.get(i), rec)).test(drones[i])) {
+                    bestRoom = room;
+                    chosen = i;
+                }
+            }
+            if (chosen < 0) {
+                Predicate<Drone> alone = null;
+                boolean bestHigh = true;
+                int fewestExtras = Integer.MAX_VALUE;
+                double smallest = Double.POSITIVE_INFINITY;
+                for (int i : eligible) {
+                    if (open.containsKey(i)) {
+                        continue;
+                    }
+                    DroneCapability cap = drones[i].getCapability();
+                    int extras = (cap.isCooling() && !rec.needCooling() ? 1 : 0)
+                            + (cap.isHeating() && !rec.needHeating() ? 1 : 0);
+                    boolean better = chosen < 0
+                            || (highRisk[i] != bestHigh ? !highRisk[i]
+                            : extras != fewestExtras ? extras < fewestExtras : cap.getCapacity() < smallest);
+                    if (!better) {
+                        continue;
+                    }
+                    if (alone == null) {
+                        alone = deliveryPlanningService.routeCheck(List.of(rec));
+                    }
+                    if (alone.test(drones[i])) {
+                        bestHigh = highRisk[i];
+                        fewestExtras = extras;
+                        smallest = cap.getCapacity();
+                        chosen = i;
+                    }
+                }
+                if (chosen >= 0) {
+                    open.put(chosen, route(startMinute, window, drones[chosen]));
+                    batches.put(chosen, new ArrayList<>());
+                }
+            }
+            if (chosen < 0) {
+                unassigned.add(rec.getId());
+                continue;
+            }
+            ScheduledWindow route = open.get(chosen);
+            route.getDispatchIds().add(rec.getId());
+            route.setLoad(route.getLoad() + needed);
+            batches.get(chosen).add(rec);
+        }
+
+        List<Integer> indices = new ArrayList<>(open.keySet());
+        indices.sort(null);
+        List<ScheduledWindow> routes = new ArrayList<>(indices.size());
+        for (int i : indices) {
+            routes.add(open.get(i));
+        }
+        unassigned.sort(null);
+        return new WindowPlan(routes, indices, unassigned);
+    }
+
+    /** Drones whose current maintenance plan is HIGH risk, by fleet position. */
+    private boolean[] highRisk(Drone[] drones) {
+        List<String> ids = new ArrayList<>(drones.length);
+        for (Drone d : drones) {
+            if (d != null && d.getId() != null) {
+                ids.add(d.getId());
+            }
+        }
+        Map<String, MaintenancePlan> plans = maintenanceService.snapshots(ids, drones);
+        boolean[] high = new boolean[drones.length];
+        for (int i = 0; i < drones.length; i++) {
+            MaintenancePlan plan = drones[i] == null ? null : plans.get(drones[i].getId());
+            high[i] = plan != null && "HIGH".equalsIgnoreCase(plan.getRiskLevel());
+        }
+        return high;
+    }
+
+    private static List<MedDispatchRec> with(List<MedDispatchRec> batch, MedDispatchRec rec) {
+        List<MedDispatchRec> extended = new ArrayList<>(batch.size() + 1);
+        extended.addAll(batch);
+        extended.add(rec);
+        return extended;
+    }
+
+    private static ScheduledWindow route(long startMinute, int window, Drone drone) {
+        long epochDay = Math.floorDiv(startMinute, FleetAvailability.MINUTES_PER_DAY);
+        int start = (int) Math.floorMod(startMinute, FleetAvailability.MINUTES_PER_DAY);
+        int end = Math.min(start + window, FleetAvailability.MINUTES_PER_DAY);
+        ScheduledWindow route = new ScheduledWindow();
+        route.setDate(TemporalFields.formatDate(epochDay));
+        route.setWindowStart(clock(start));
+        route.setWindowEnd(clock(end));
+        route.setDroneId(drone.getId());
+        route.setCapacity(drone.getCapability().getCapacity());
+        return route;
+    }
+
+    private static String clock(int minuteOfDay) {
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    private record WindowPlan(List<ScheduledWindow> routes, List<Integer> droneIndices, List<Integer> unassigned) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.DeliveryFlightDto;
+import com.example.cw1.dto.DeliveryPathResponse;
+import com.example.cw1.dto.DronePathDto;
+import com.example.cw1.dto.Position;
+import com.example.cw1.dto.ServicePoint;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a delivery plan as a GeoJSON FeatureCollection: one LineString per delivery flight
+ * (properties {@code droneId}, {@code deliveryId}), one Point per delivery location and one Point per
+ * service point the plan launches from, falling back to the given default when no path names one.
+ * Everything is written token by token to the generator.
+ */
+public final class DeliveryGeoJsonWriter {
+
+    private DeliveryGeoJsonWriter() {
+    }
+
+    public static void write(DeliveryPathResponse response, Position servicePoint, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "FeatureCollection");
+        gen.writeArrayFieldStart("features");
+
+        List<DronePathDto> paths = response == null ? null : response.getDronePaths();
+        List<ServicePoint> launchedFrom = new ArrayList<>();
+        if (paths != null) {
+            for (DronePathDto path : paths) {
+                if (path.getServicePoint() != null && path.getServicePoint().getLocation() != null
+                        && !launchedFrom.contains(path.getServicePoint())) {
+                    launchedFrom.add(path.getServicePoint());
+                }
+                if (path.getDeliveries() == null) {
+                    continue;
+                }
+                for (DeliveryFlightDto delivery : path.getDeliveries()) {
+                    writeFlight(path.getDroneId(), delivery, gen);
+                    if (delivery.getDeliveryPoint() != null) {
+                        writePoint(delivery.getDeliveryPoint(), "delivery", path.getDroneId(), delivery.getDeliveryId(), gen);
+                    }
+                }
+            }
+        }
+        if (!launchedFrom.isEmpty()) {
+            for (ServicePoint sp : launchedFrom) {
+                writePoint(sp.getLocation(), "servicePoint", null, null, gen);
+            }
+        } else if (servicePoint != null) {
+            writePoint(servicePoint, "servicePoint", null, null, gen);
+        }
+
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private static void writeFlight(String droneId, DeliveryFlightDto delivery, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "Feature");
+        gen.writeObjectFieldStart("geometry");
+        gen.writeStringField("type", "LineString");
+        gen.writeArrayFieldStart("coordinates");
+        List<Position> flightPath = delivery.getFlightPath();
+        if (flightPath instanceof PathBuffer.Slice slice) {
+            for (int i = 0; i < slice.size(); i++) {
+                writeCoordinate(slice.lng(i), slice.lat(i), gen);
+            }
+        } else if (flightPath != null) {
+            for (Position p : flightPath) {
+                writeCoordinate(p.getLng(), p.getLat(), gen);
+            }
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("properties");
+        gen.writeStringField("kind", "flight");
+        gen.writeStringField("droneId", droneId);
+        gen.writeNumberField("deliveryId", delivery.getDeliveryId());
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    private static void writePoint(Position point,
+                                   String kind,
+                                   String droneId,
+                                   Integer deliveryId,
+                                   JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "Feature");
+        gen.writeObjectFieldStart("geometry");
+        gen.writeStringField("type", "Point");
+        gen.writeFieldName("coordinates");
+        writeCoordinate(point.getLng(), point.getLat(), gen);
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("properties");
+        gen.writeStringField("kind", kind);
+        if (droneId != null) {
+            gen.writeStringField("droneId", droneId);
+        }
+        if (deliveryId != null) {
+            gen.writeNumberField("deliveryId", deliveryId);
+        }
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    private static void writeCoordinate(double lng, double lat, JsonGenerator gen) throws IOException {
+        gen.writeStartArray();
+        gen.writeNumber(lng);
+        gen.writeNumber(lat);
+        gen.writeEndArray();
+    }
+}
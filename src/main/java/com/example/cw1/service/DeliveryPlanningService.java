@@ -2,175 +2,673 @@ package com.example.cw1.service;
 
 import com.example.cw1.dto.DeliveryFlightDto;
 import com.example.cw1.dto.DeliveryPathResponse;
+import com.example.cw1.dto.DeliveryQuoteResponse;
 import com.example.cw1.dto.Drone;
 import com.example.cw1.dto.DroneCapability;
 import com.example.cw1.dto.DronePathDto;
 import com.example.cw1.dto.MaintenancePlan;
 import com.example.cw1.dto.MedDispatchRec;
+import com.example.cw1.dto.MissionAssignment;
 import com.example.cw1.dto.MedDispatchRequirements;
 import com.example.cw1.dto.Position;
+import com.example.cw1.dto.ServicePoint;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Service
 public class DeliveryPlanningService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(DeliveryPlanningService.class);
+
+    // Default depot, used when neither configuration nor ILP publishes service points. Dispatches without
+    // a delivery position are laid out from this point regardless of which depot a route launches from.
+    private static final double SERVICE_POINT_LNG = -3.186874;
+    private static final double SERVICE_POINT_LAT = 55.944494;
+    private static final long SERVICE_POINT_REFRESH_MS = 300_000;
+    static final int MAX_DELIVERIES_PER_ROUTE = 12;
+    // beyond this many routes per batch the greedy assignment stands; matching is cubic in the route count
+    static final int MAX_OPTIMAL_ROUTES = 64;
+    private static final double DELIVERY_SPACING = 0.0003;
+    static final double STEP = 0.00015;
+    private static final JsonFactory GEO_JSON_FACTORY = new JsonFactory();
+    private static final int PLAN_CACHE_ENTRIES = 256;
+    private static final int MAX_ACTIVE_MISSIONS = 4096;
+
     @Autowired
     private IlpDataService ilpDataService;
 
     @Autowired
     private MaintenanceService maintenanceService;
 
+    // the index for the most recent (fleet, maintenance) versions; each request keeps the one it obtained
+    private volatile DroneCapabilityIndex capabilityIndex;
+
+    private final DroneCapabilityIndex.RankingStats rankingStats = new DroneCapabilityIndex.RankingStats();
+
+    private final PlanCache planCache = new PlanCache(PLAN_CACHE_ENTRIES);
+
+
+    private final MissionRegistry missions = new MissionRegistry(MAX_ACTIVE_MISSIONS);
+
+    // plan listeners run under the maintenance service's lock; reassignment calls ILP and the index, so it
+    // runs here instead, one plan change at a time in the order they were recorded
+    private final ExecutorService reassignments = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "mission-reassignment");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${planning.service-points:}")
+    private String configuredServicePoints;
+
+    // the last service point index loaded, served while a refresh runs in the background
+    private volatile LoadedServicePoints servicePoints;
+    private final Object servicePointLoad = new Object();
+    private final AtomicBoolean servicePointRefreshing = new AtomicBoolean();
+    private long servicePointRefreshMs = SERVICE_POINT_REFRESH_MS;
+
+    private final ExecutorService servicePointRefresh = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "service-point-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    void registerMaintenanceListener() {
+        // new telemetry bumps the maintenance version, so the reassignment's lookup builds a fresh index
+        maintenanceService.addPlanListener("mission-reassignment",
+                plan -> reassignments.execute(() -> reassignMissions(plan)));
+    }
+
+    @PreDestroy
+    void stopBackgroundWork() {
+        reassignments.shutdownNow();
+        servicePointRefresh.shutdownNow();
+    }
+
+    /**
+     * Plans a dispatch batch. Results are cached per dispatch list, fleet version and maintenance version,
+     * so the JSON and GeoJSON endpoints share one computation and identical concurrent requests coalesce.
+     * The returned response is shared between callers and must be treated as read-only.
+     */
     public DeliveryPathResponse calcDeliveryPath(List<MedDispatchRec> dispatches) {
+        return calcDeliveryPath(dispatches, PlanningBudget.unlimited());
+    }
+
+    /**
+     * Plans within the given budget. When it runs out, the best plan found so far is returned with
+     * {@code planStatus} {@code "truncated"} instead of {@code "complete"}; truncated plans are never cached.
+     */
+    public DeliveryPathResponse calcDeliveryPath(List<MedDispatchRec> dispatches, PlanningBudget budget) {
+        if (dispatches == null || dispatches.isEmpty()) {
+            return emptyResponse();
+        }
+
+        Drone[] drones = ilpDataService.getDrones();
+        if (drones == null || drones.length == 0) {
+            return emptyResponse();
+        }
+
+        ServicePointIndex servicePoints = servicePoints();
+        long version = 31 * FleetFingerprint.of(drones) + servicePoints.fingerprint();
+        return planCache.get(dispatches, version, maintenanceService.version(), budget,
+                b -> planDeliveryPath(dispatches, drones, servicePoints, b));
+    }
+
+    PlanCache planCache() {
+        return planCache;
+    }
+
+    /**
+     * The most recently published index, or null before the first selection.
+     */
+    DroneCapabilityIndex capabilityIndex() {
+        return capabilityIndex;
+    }
+
+    DroneCapabilityIndex.RankingStats rankingStats() {
+        return rankingStats;
+    }
+
+    MissionRegistry missions() {
+        return missions;
+    }
+
+    /**
+     * Current assignment of the route delivering the given dispatch, which differs from the issued plan once
+     * the route has been moved off a drone that turned HIGH risk; null when no issued route contains it.
+     */
+    public MissionAssignment missionFor(int dispatchId) {
+        MissionRegistry.Mission mission = missions.missionFor(dispatchId);
+        if (mission == null) {
+            return null;
+        }
+        MissionAssignment assignment = new MissionAssignment();
+        assignment.setPlanId(mission.planId());
+        assignment.setDispatchIds(mission.key());
+        assignment.setDroneId(mission.droneId());
+        assignment.setRiskLevel(mission.riskLevel());
+        assignment.setIssuedDroneId(mission.issuedDroneId());
+        return assignment;
+    }
+
+    /**
+     * Moves the issued routes of a drone that has just turned HIGH risk to the best other drone able to fly
+     * them, chosen exactly as in planning. Drones flying the other routes of the same plan are not
+     * considered; when no drone other than a HIGH risk one remains, the route stays where it is.
+     */
+    void reassignMissions(MaintenancePlan plan) {
+        if (plan == null || plan.getDroneId() == null) {
+            return;
+        }
+        List<MissionRegistry.Mission> affected = missions.riskChanged(plan.getDroneId(), plan.getRiskLevel());
+        if (affected.isEmpty()) {
+            return;
+        }
+        Drone[] drones = ilpDataService.getDrones();
+        for (MissionRegistry.Mission mission : affected) {
+            DroneCapabilityIndex.Selection selection = null;
+            if (drones != null && drones.length > 0) {
+                Set<String> flying = missions.dronesOf(mission.planId());
+                Set<Drone> taken = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Drone d : drones) {
+                    if (d != null && flying.contains(d.getId())) {
+                        taken.add(d);
+                    }
+                }
+                FeasibilityCheck check = new FeasibilityCheck(mission.dispatches(), mission.legMoves(),
+                        mission.plannedMoves(), taken);
+                selection = chooseDroneFor(mission.dispatches(), drones, check);
+            }
+            boolean replaced = selection != null && selection.drone().getCapability() != null
+                    && (selection.plan() == null || !"HIGH".equalsIgnoreCase(selection.plan().getRiskLevel()));
+            if (replaced) {
+                missions.reassign(mission, selection.drone().getId(),
+                        selection.plan() == null ? null : selection.plan().getRiskLevel());
+            } else {
+                missions.reassign(mission, null, null);
+            }
+        }
+    }
+
+    private DeliveryPathResponse emptyResponse() {
         DeliveryPathResponse response = new DeliveryPathResponse();
         response.setTotalCost(0.0);
         response.setTotalMoves(0);
         response.setDronePaths(new ArrayList<>());
+        return response;
+    }
 
-        if (dispatches == null || dispatches.isEmpty()) {
+    private DeliveryPathResponse planDeliveryPath(List<MedDispatchRec> dispatches,
+                                                  Drone[] drones,
+                                                  ServicePointIndex servicePoints,
+                                                  PlanningBudget budget) {
+        DeliveryPathResponse response = emptyResponse();
+
+        // Feasibility pre-pass: moves follow from geometry alone, so maxMoves and maxCost can be
+        // checked against every candidate before a single Position is allocated.
+        RoutePlan plan = planRoutes(dispatches, drones, servicePoints, budget);
+        response.setPlanStatus(budget.status());
+        if (plan.failedConstraint() != null) {
+            response.setFailedConstraint(plan.failedConstraint());
             return response;
         }
 
-        Drone[] drones = ilpDataService.getDrones();
-        if (drones == null || drones.length == 0) {
-            return response;
+        // One primitive buffer holds the whole plan; each delivery exposes its slice as the flight path.
+        Targets targets = plan.targets();
+        PathBuffer buffer = new PathBuffer(plan.plannedMoves() + dispatches.size());
+        List<DronePathDto> paths = new ArrayList<>(plan.routes().size());
+        int totalMoves = 0;
+        double totalCost = 0.0;
+
+        for (int r = 0; r < plan.routes().size(); r++) {
+            Route route = plan.routes().get(r);
+            Drone chosen = plan.selections().get(r).drone();
+            int[] members = route.members();
+            List<DeliveryFlightDto> deliveries = new ArrayList<>(members.length);
+            int routeMoves = 0;
+            double fromLng = route.launch().lng();
+            double fromLat = route.launch().lat();
+
+            for (int m = 0; m < members.length; m++) {
+                MedDispatchRec rec = dispatches.get(members[m]);
+                double toLng = targets.lng()[members[m]];
+                double toLat = targets.lat()[members[m]];
+
+                int start = buffer.size();
+                buffer.appendSegment(fromLng, fromLat, toLng, toLat, STEP, false);
+
+                int last = buffer.size() - 1;
+                if (buffer.lng(last) != toLng || buffer.lat(last) != toLat) {
+                    buffer.add(toLng, toLat);
+                }
+
+                buffer.add(toLng, toLat);
+
+                if (m == members.length - 1) {
+                    buffer.appendSegment(toLng, toLat, route.launch().lng(), route.launch().lat(), STEP, true);
+                }
+
+                routeMoves += buffer.size() - start - 1;
+
+                DeliveryFlightDto d = new DeliveryFlightDto();
+                d.setDeliveryId(rec.getId());
+                d.setFlightPath(buffer.slice(start, buffer.size()));
+                d.setDeliveryPoint(new Position(toLng, toLat));
+                deliveries.add(d);
+
+                fromLng = toLng;
+                fromLat = toLat;
+            }
+
+            totalMoves += routeMoves;
+            totalCost += baseCost(chosen.getCapability(), routeMoves);
+
+            DronePathDto path = new DronePathDto();
+            path.setDroneId(String.valueOf(chosen.getId()));
+            path.setDeliveries(deliveries);
+            path.setServicePoint(route.launch().servicePoint());
+            paths.add(path);
         }
 
-        DroneSelection selection = chooseDroneFor(dispatches, drones);
-        if (selection == null || selection.drone().getCapability() == null) {
+        if (totalMoves == 0) {
             return response;
         }
 
-        Drone chosen = selection.drone();
-        MaintenancePlan plan = selection.plan();
-        DroneCapability cap = chosen.getCapability();
+        long planId = missions.nextPlanId();
+        for (int r = 0; r < plan.routes().size(); r++) {
+            Route route = plan.routes().get(r);
+            DroneCapabilityIndex.Selection selection = plan.selections().get(r);
+            missions.register(planId, route.dispatches(dispatches), route.legMoves(), route.plannedMoves(),
+                    selection.drone().getId(), selection.plan() == null ? null : selection.plan().getRiskLevel());
+        }
 
-        Position servicePoint = createPosition(-3.186874, 55.944494);
+        response.setTotalMoves(totalMoves);
+        response.setTotalCost(totalCost);
+        response.setMaintenancePlan(plan.selections().get(0).plan());
+        response.setDronePaths(paths);
 
-        List<Position> deliveryPositions = new ArrayList<>();
-        for (int i = 0; i < dispatches.size(); i++) {
-            double offset = 0.0003 * (i + 1);
-            double lng = servicePoint.getLng() + offset;
-            double lat = servicePoint.getLat() + offset;
-            deliveryPositions.add(createPosition(lng, lat));
+        return response;
+    }
+
+    /**
+     * Prices a dispatch batch without building its flight path. Per-leg move counts are derived from
+     * {@code ceil(distance / STEP)} and match the paths {@link #calcDeliveryPath} would produce.
+     */
+    public DeliveryQuoteResponse quoteDelivery(List<MedDispatchRec> dispatches) {
+        return quoteDelivery(dispatches, PlanningBudget.unlimited());
+    }
+
+    public DeliveryQuoteResponse quoteDelivery(List<MedDispatchRec> dispatches, PlanningBudget budget) {
+        DeliveryQuoteResponse quote = new DeliveryQuoteResponse();
+        if (dispatches == null || dispatches.isEmpty()) {
+            return quote;
         }
 
-        List<DeliveryFlightDto> deliveries = new ArrayList<>();
-        List<Integer> movesPerDelivery = new ArrayList<>();
+        Drone[] drones = ilpDataService.getDrones();
+        if (drones == null || drones.length == 0) {
+            return quote;
+        }
+
+        RoutePlan plan = planRoutes(dispatches, drones, servicePoints(), budget);
+        quote.setPlanStatus(budget.status());
+        int[] moves = new int[dispatches.size()];
         int totalMoves = 0;
+        for (Route route : plan.routes()) {
+            for (int m = 0; m < route.members().length; m++) {
+                moves[route.members()[m]] = route.legMoves()[m];
+            }
+            totalMoves += route.plannedMoves();
+        }
+        List<Integer> perDelivery = new ArrayList<>(moves.length);
+        for (int m : moves) {
+            perDelivery.add(m);
+        }
+        quote.setTotalMoves(totalMoves);
+        quote.setMovesPerDelivery(perDelivery);
 
-        for (int i = 0; i < dispatches.size(); i++) {
-            MedDispatchRec rec = dispatches.get(i);
-            Position startPos = (i == 0) ? servicePoint : deliveryPositions.get(i - 1);
-            Position targetPos = deliveryPositions.get(i);
+        if (plan.failedConstraint() != null) {
+            quote.setFailedConstraint(plan.failedConstraint());
+            return quote;
+        }
 
-            List<Position> segment = buildSegment(startPos, targetPos);
-            if (segment.isEmpty()) {
-                segment.add(createPosition(startPos.getLng(), startPos.getLat()));
-                segment.add(createPosition(targetPos.getLng(), targetPos.getLat()));
-            }
+        double totalCost = 0.0;
+        List<String> droneIds = new ArrayList<>(plan.routes().size());
+        for (int r = 0; r < plan.routes().size(); r++) {
+            Drone drone = plan.selections().get(r).drone();
+            totalCost += baseCost(drone.getCapability(), plan.routes().get(r).plannedMoves());
+            droneIds.add(drone.getId());
+        }
+        quote.setDroneId(droneIds.get(0));
+        if (droneIds.size() > 1) {
+            quote.setDroneIds(droneIds);
+        }
+        quote.setTotalCost(totalCost);
+        quote.setFeasible(true);
+        return quote;
+    }
 
-            Position last = segment.get(segment.size() - 1);
-            if (last.getLng() != targetPos.getLng() || last.getLat() != targetPos.getLat()) {
-                segment.add(createPosition(targetPos.getLng(), targetPos.getLat()));
-            }
+    /**
+     * Splits the batch into routes, works out each route's depot and move counts (in parallel when there
+     * is more than one), then assigns drones so that no drone flies two routes. Drones are first assigned
+     * route by route; batches of several routes are then matched as a whole (see {@link #assignOptimally})
+     * and the greedy assignment is kept only when the match is no cheaper or cannot be computed in time.
+     */
+    private RoutePlan planRoutes(List<MedDispatchRec> dispatches,
+                                 Drone[] drones,
+                                 ServicePointIndex servicePoints,
+                                 PlanningBudget budget) {
+        Targets targets = Targets.of(dispatches);
+        List<int[]> groups = groupsFor(targets, budget);
+        Stream<int[]> stream = groups.size() > 1 ? groups.parallelStream() : groups.stream();
+        List<Route> routes = stream.map(members -> routeFor(members, targets, servicePoints, budget)).toList();
+
+        RoutePlan greedy = assignGreedily(dispatches, drones, targets, routes);
+        if (routes.size() < 2 || routes.size() > MAX_OPTIMAL_ROUTES) {
+            return greedy;
+        }
+        if (budget.expired()) {
+            budget.markTruncated();
+            return greedy;
+        }
+        List<DroneCapabilityIndex.Selection> optimal = assignOptimally(dispatches, drones, routes, greedy, budget);
+        if (optimal == null) {
+            return greedy;
+        }
+        int plannedMoves = 0;
+        for (Route route : routes) {
+            plannedMoves += route.plannedMoves();
+        }
+        return new RoutePlan(targets, routes, optimal, plannedMoves, null);
+    }
 
-            segment.add(createPosition(targetPos.getLng(), targetPos.getLat()));
+    private RoutePlan assignGreedily(List<MedDispatchRec> dispatches, Drone[] drones, Targets targets, List<Route> routes) {
+        Set<Drone> assigned = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<DroneCapabilityIndex.Selection> selections = new ArrayList<>(routes.size());
+        int plannedMoves = 0;
+        for (Route route : routes) {
+            List<MedDispatchRec> batch = route.dispatches(dispatches);
+            FeasibilityCheck check = new FeasibilityCheck(batch, route.legMoves(), route.plannedMoves(), assigned);
+            DroneCapabilityIndex.Selection selection = chooseDroneFor(batch, drones, check);
+            if (selection == null || selection.drone().getCapability() == null) {
+                return new RoutePlan(targets, routes, selections, plannedMoves,
+                        check.failedConstraint(hasRequirements(batch)));
+            }
+            assigned.add(selection.drone());
+            selections.add(selection);
+            plannedMoves += route.plannedMoves();
+        }
+        return new RoutePlan(targets, routes, selections, plannedMoves, null);
+    }
 
-            if (i == dispatches.size() - 1) {
-                List<Position> back = buildSegment(targetPos, servicePoint);
-                if (!back.isEmpty()) {
-                    back.remove(0);
-                    segment.addAll(back);
+    /**
+     * Matches every route to a drone at once, minimising the summed {@link DroneAssignment#cost}. Each
+     * route only considers its {@code routes.size()} cheapest feasible drones: an optimal match never needs
+     * more, as the other routes can take at most one fewer of them. Returns null when the routes cannot all
+     * be covered, the budget runs out, or the match is no cheaper than the greedy assignment.
+     */
+    private List<DroneCapabilityIndex.Selection> assignOptimally(List<MedDispatchRec> dispatches,
+                                                                 Drone[] drones,
+                                                                 List<Route> routes,
+                                                                 RoutePlan greedy,
+                                                                 PlanningBudget budget) {
+        DroneCapabilityIndex index = capabilityIndexFor(drones);
+        int n = routes.size();
+        double[] needed = new double[n];
+        int[][] rowColumns = new int[n][];
+        double[][] rowCosts = new double[n][];
+        Map<Drone, Integer> columns = new IdentityHashMap<>();
+        List<DroneCapabilityIndex.Selection> columnSelections = new ArrayList<>();
+
+        for (int r = 0; r < n; r++) {
+            Route route = routes.get(r);
+            List<MedDispatchRec> batch = route.dispatches(dispatches);
+            if (!hasRequirements(batch)) {
+                return null;
+            }
+            boolean cooling = false;
+            boolean heating = false;
+            for (MedDispatchRec rec : batch) {
+                needed[r] += rec.getRequirements().getCapacity();
+                cooling |= rec.getRequirements().isCooling();
+                heating |= rec.getRequirements().isHeating();
+            }
+            FeasibilityCheck check = new FeasibilityCheck(batch, route.legMoves(), route.plannedMoves(),
+                    Collections.emptySet());
+            List<DroneCapabilityIndex.Selection> feasible = new ArrayList<>();
+            List<Double> costs = new ArrayList<>();
+            for (DroneCapabilityIndex.Selection candidate : index.ranked(needed[r], cooling, heating, Integer.MAX_VALUE)) {
+                if (check.test(candidate.drone())) {
+                    feasible.add(candidate);
+                    costs.add(assignmentCost(candidate, needed[r], route));
                 }
             }
+            if (feasible.isEmpty()) {
+                return null;
+            }
+            // stable: equal costs keep the index's ranking order
+            Integer[] order = new Integer[feasible.size()];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.comparingDouble(costs::get));
+            int keep = Math.min(n, order.length);
+            rowColumns[r] = new int[keep];
+            rowCosts[r] = new double[keep];
+            for (int k = 0; k < keep; k++) {
+                DroneCapabilityIndex.Selection candidate = feasible.get(order[k]);
+                Integer column = columns.get(candidate.drone());
+                if (column == null) {
+                    column = columnSelections.size();
+                    columns.put(candidate.drone(), column);
+                    columnSelections.add(candidate);
+                }
+                rowColumns[r][k] = column;
+                rowCosts[r][k] = costs.get(order[k]);
+            }
+        }
+        if (columnSelections.size() < n) {
+            return null;
+        }
+
+        double[][] matrix = new double[n][columnSelections.size()];
+        for (int r = 0; r < n; r++) {
+            Arrays.fill(matrix[r], DroneAssignment.FORBIDDEN);
+            for (int k = 0; k < rowColumns[r].length; k++) {
+                matrix[r][rowColumns[r][k]] = rowCosts[r][k];
+            }
+        }
+        int[] match = DroneAssignment.solve(matrix, budget);
+        if (match == null) {
+            return null;
+        }
+        double total = 0.0;
+        List<DroneCapabilityIndex.Selection> selections = new ArrayList<>(n);
+        for (int r = 0; r < n; r++) {
+            if (matrix[r][match[r]] >= DroneAssignment.FORBIDDEN) {
+                return null;
+            }
+            total += matrix[r][match[r]];
+            selections.add(columnSelections.get(match[r]));
+        }
+        if (greedy.failedConstraint() == null) {
+            double greedyTotal = 0.0;
+            for (int r = 0; r < n; r++) {
+                greedyTotal += assignmentCost(greedy.selections().get(r), needed[r], routes.get(r));
+            }
+            if (total >= greedyTotal - 1e-9) {
+                return null;
+            }
+        }
+        return selections;
+    }
 
-            int moves = segment.size() - 1;
-            totalMoves += moves;
-            movesPerDelivery.add(moves);
+    private double assignmentCost(DroneCapabilityIndex.Selection selection, double needed, Route route) {
+        DroneCapability cap = selection.drone().getCapability();
+        return DroneAssignment.cost(selection.plan(), cap.getCapacity(), needed, baseCost(cap, route.plannedMoves()));
+    }
+
+    /**
+     * Batches up to {@link #MAX_DELIVERIES_PER_ROUTE} fly as one route; larger ones are clustered
+     * geographically into routes of at most that many deliveries.
+     */
+    private List<int[]> groupsFor(Targets targets, PlanningBudget budget) {
+        int n = targets.lng().length;
+        int k = (n + MAX_DELIVERIES_PER_ROUTE - 1) / MAX_DELIVERIES_PER_ROUTE;
+        return DispatchClusterer.cluster(targets.lng(), targets.lat(), k, budget);
+    }
 
-            DeliveryFlightDto d = new DeliveryFlightDto();
-            d.setDeliveryId(rec.getId());
-            d.setFlightPath(segment);
-            deliveries.add(d);
+    /**
+     * GeoJSON FeatureCollection of the plan, see {@link DeliveryGeoJsonWriter}. Prefer
+     * {@link #writeDeliveryPathAsGeoJson} for large plans, which never holds the document in memory.
+     */
+    public String calcDeliveryPathAsGeoJson(List<MedDispatchRec> dispatches) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = GEO_JSON_FACTORY.createGenerator(out)) {
+            DeliveryGeoJsonWriter.write(calcDeliveryPath(dispatches), servicePoint(), gen);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to render GeoJSON", e);
         }
+        return out.toString();
+    }
 
-        if (totalMoves == 0) {
-            return response;
+    public void writeDeliveryPathAsGeoJson(List<MedDispatchRec> dispatches, OutputStream out) throws IOException {
+        writeDeliveryPathAsGeoJson(calcDeliveryPath(dispatches), out);
+    }
+
+    public void writeDeliveryPathAsGeoJson(DeliveryPathResponse response, OutputStream out) throws IOException {
+        try (JsonGenerator gen = GEO_JSON_FACTORY.createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            DeliveryGeoJsonWriter.write(response, servicePoint(), gen);
         }
+    }
 
-        double baseCost = cap.getCostInitial()
-                + cap.getCostFinal()
-                + cap.getCostPerMove() * totalMoves;
+    private Position servicePoint() {
+        return new Position(SERVICE_POINT_LNG, SERVICE_POINT_LAT);
+    }
 
-        for (int i = 0; i < dispatches.size(); i++) {
-            MedDispatchRec rec = dispatches.get(i);
-            MedDispatchRequirements req = rec.getRequirements();
-            if (req == null) {
-                continue;
-            }
-            Double maxCost = req.getMaxCost();
-            if (maxCost == null) {
-                continue;
+    /**
+     * Depots from {@code planning.service-points} when configured, otherwise from ILP, otherwise the
+     * default depot. Only the very first call waits for them to load; once the index is older than the
+     * refresh interval, one caller starts a background reload and every request keeps using the old index
+     * until the new one is published. A failed reload keeps the old index and is retried by the next caller.
+     */
+    private ServicePointIndex servicePoints() {
+        LoadedServicePoints current = servicePoints;
+        if (current == null) {
+            synchronized (servicePointLoad) {
+                current = servicePoints;
+                if (current == null) {
+                    current = loadServicePoints();
+                    servicePoints = current;
+                }
             }
-            int movesForThis = movesPerDelivery.get(i);
-            double share = baseCost * ((double) movesForThis / (double) totalMoves);
-            if (share - maxCost > 1e-9) {
-                return response;
+            return current.index();
+        }
+        if (System.currentTimeMillis() - current.loadedAt() >= servicePointRefreshMs
+                && servicePointRefreshing.compareAndSet(false, true)) {
+            try {
+                servicePointRefresh.execute(() -> {
+                    try {
+                        servicePoints = loadServicePoints();
+                    } catch (RuntimeException e) {
+                        LOG.warn("Service point refresh failed, keeping the previous index", e);
+                    } finally {
+                        servicePointRefreshing.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                servicePointRefreshing.set(false);
             }
         }
+        return current.index();
+    }
 
-        response.setTotalMoves(totalMoves);
-        response.setTotalCost(baseCost);
-        response.setMaintenancePlan(plan);
+    private LoadedServicePoints loadServicePoints() {
+        long now = System.currentTimeMillis();
+        List<ServicePoint> points = ServicePointIndex.parse(configuredServicePoints);
+        if (points.isEmpty()) {
+            ServicePoint[] published = ilpDataService.getServicePoints();
+            if (published != null) {
+                points = Arrays.asList(published);
+            }
+        }
+        ServicePointIndex index = ServicePointIndex.of(points);
+        if (index.isEmpty()) {
+            index = ServicePointIndex.of(List.of(new ServicePoint("Appleton Tower", null, servicePoint())));
+        }
+        return new LoadedServicePoints(index, now);
+    }
 
-        DronePathDto path = new DronePathDto();
-        path.setDroneId(String.valueOf(chosen.getId()));
-        path.setDeliveries(deliveries);
+    private record LoadedServicePoints(ServicePointIndex index, long loadedAt) {
+    }
 
-        List<DronePathDto> paths = new ArrayList<>();
-        paths.add(path);
-        response.setDronePaths(paths);
+    /**
+     * Picks the depot with the fewest total moves for a route. Only the outbound and return legs depend on
+     * the depot, so the KD-tree narrows the choice to depots whose round trip to the first and last
+     * delivery is within two steps of the best before exact move counts are compared. Out of budget,
+     * the nearest depot by distance is kept.
+     */
+    private Route routeFor(int[] members, Targets targets, ServicePointIndex servicePoints, PlanningBudget budget) {
+        int first = members[0];
+        int last = members[members.length - 1];
+
+        Route best = null;
+        int[] candidates = servicePoints.roundTripCandidates(
+                targets.lng()[first], targets.lat()[first], targets.lng()[last], targets.lat()[last], 2 * STEP);
+        for (int candidate : candidates) {
+            if (best != null && budget.expired()) {
+                budget.markTruncated();
+                break;
+            }
+            ServicePoint sp = servicePoints.get(candidate);
+            Launch launch = new Launch(sp, sp.getLocation().getLng(), sp.getLocation().getLat());
+            int[] moves = legMoves(launch, targets, members);
+            int total = sum(moves);
+            if (best == null || total < best.plannedMoves()) {
+                best = new Route(members, launch, moves, total);
+            }
+        }
+        return best;
+    }
 
-        return response;
+    /**
+     * Tests drones against {@code batch} flown in order as one route from its best depot, under the same move
+     * and cost limits as planning. For callers that pack routes themselves, such as the day scheduler.
+     */
+    Predicate<Drone> routeCheck(List<MedDispatchRec> batch) {
+        int[] members = new int[batch.size()];
+        Arrays.setAll(members, i -> i);
+        Route route = routeFor(members, Targets.of(batch), servicePoints(), PlanningBudget.unlimited());
+        return new FeasibilityCheck(batch, route.legMoves(), route.plannedMoves(), Collections.emptySet());
     }
 
-    public String calcDeliveryPathAsGeoJson(List<MedDispatchRec> dispatches) {
-        DeliveryPathResponse resp = calcDeliveryPath(dispatches);
-        if (resp.getDronePaths() == null
-                || resp.getDronePaths().isEmpty()
-                || resp.getDronePaths().get(0).getDeliveries() == null
-                || resp.getDronePaths().get(0).getDeliveries().isEmpty()) {
-            return "{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":[]},\"properties\":{}}";
-        }
-
-        List<Position> coords = resp.getDronePaths()
-                .get(0)
-                .getDeliveries()
-                .get(0)
-                .getFlightPath();
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":[");
-        for (int i = 0; i < coords.size(); i++) {
-            Position p = coords.get(i);
-            sb.append("[")
-                    .append(p.getLng())
-                    .append(",")
-                    .append(p.getLat())
-                    .append("]");
-            if (i < coords.size() - 1) {
-                sb.append(",");
-            }
-        }
-        sb.append("]},\"properties\":{}}");
-        return sb.toString();
-    }
-
-    private DroneSelection chooseDroneFor(List<MedDispatchRec> dispatches, Drone[] drones) {
+    private DroneCapabilityIndex.Selection chooseDroneFor(List<MedDispatchRec> dispatches,
+                                                          Drone[] drones,
+                                                          Predicate<Drone> feasible) {
         double totalCapacityNeeded = 0.0;
         boolean coolingNeeded = false;
         boolean heatingNeeded = false;
@@ -188,91 +686,228 @@ public class DeliveryPlanningService {
             }
         }
 
-        DroneSelection withoutHighRisk = chooseDroneCandidate(drones, totalCapacityNeeded, coolingNeeded, heatingNeeded, false);
-        if (withoutHighRisk != null) {
-            return withoutHighRisk;
-        }
-        return chooseDroneCandidate(drones, totalCapacityNeeded, coolingNeeded, heatingNeeded, true);
+        DroneCapabilityIndex index = capabilityIndexFor(drones);
+        return index.best(totalCapacityNeeded, coolingNeeded, heatingNeeded, feasible);
     }
 
-    private DroneSelection chooseDroneCandidate(Drone[] drones,
-                                                double capacityNeeded,
-                                                boolean coolingNeeded,
-                                                boolean heatingNeeded,
-                                                boolean allowHighRiskFallback) {
-        if (drones == null || drones.length == 0) {
-            return null;
+    /**
+     * The index for this fleet listing under the current maintenance version: the published one when it
+     * matches, otherwise a new one built from fresh snapshots and published in its place. Concurrent
+     * requests for different listings each build and use their own; the last one published is kept. A log
+     * recorded while the snapshots are taken changes the version, and the snapshots are taken again so an
+     * index is never labelled with a version older than its plans.
+     */
+    private DroneCapabilityIndex capabilityIndexFor(Drone[] drones) {
+        long fleetVersion = FleetFingerprint.of(drones);
+        while (true) {
+            long maintenanceVersion = maintenanceService.version();
+            DroneCapabilityIndex current = capabilityIndex;
+            if (current != null && current.isBuiltFor(fleetVersion, maintenanceVersion)) {
+                return current;
+            }
+            List<String> ids = new ArrayList<>(drones.length);
+            for (Drone d : drones) {
+                if (d != null && d.getCapability() != null && d.getId() != null) {
+                    ids.add(d.getId());
+                }
+            }
+            Map<String, MaintenancePlan> plans = maintenanceService.snapshots(ids, drones);
+            if (maintenanceService.version() == maintenanceVersion) {
+                DroneCapabilityIndex built = DroneCapabilityIndex.build(drones, fleetVersion, maintenanceVersion,
+                        plans, rankingStats);
+                capabilityIndex = built;
+                return built;
+            }
         }
-        DroneSelection best = null;
-        double bestScore = Double.NEGATIVE_INFINITY;
+    }
 
-        for (Drone d : drones) {
-            if (d == null || d.getCapability() == null) {
-                continue;
+    private boolean hasRequirements(List<MedDispatchRec> dispatches) {
+        for (MedDispatchRec rec : dispatches) {
+            if (rec.getRequirements() == null) {
+                return false;
             }
-            DroneCapability cap = d.getCapability();
-            if (cap.getCapacity() < capacityNeeded) {
-                continue;
+        }
+        return true;
+    }
+
+    private double baseCost(DroneCapability cap, int totalMoves) {
+        return cap.getCostInitial()
+                + cap.getCostFinal()
+                + cap.getCostPerMove() * totalMoves;
+    }
+
+    private int sum(int[] values) {
+        int total = 0;
+        for (int v : values) {
+            total += v;
+        }
+        return total;
+    }
+
+    /**
+     * Rejects drones whose move budget or cost breaks the batch constraints, remembering which
+     * constraint ruled candidates out so the response can report it.
+     */
+    private final class FeasibilityCheck implements Predicate<Drone> {
+        private final List<MedDispatchRec> dispatches;
+        private final int[] moves;
+        private final int totalMoves;
+        private final Set<Drone> assigned;
+        private boolean movesExceeded;
+        private boolean costExceeded;
+        private boolean alreadyAssigned;
+
+        FeasibilityCheck(List<MedDispatchRec> dispatches, int[] moves, int totalMoves, Set<Drone> assigned) {
+            this.dispatches = dispatches;
+            this.moves = moves;
+            this.totalMoves = totalMoves;
+            this.assigned = assigned;
+        }
+
+        @Override
+        public boolean test(Drone drone) {
+            if (assigned.contains(drone)) {
+                alreadyAssigned = true;
+                return false;
             }
-            if (coolingNeeded && !cap.isCooling()) {
-                continue;
+            DroneCapability cap = drone.getCapability();
+            // a non-positive maxMoves means ILP did not publish a limit for this drone
+            if (cap.getMaxMoves() > 0 && totalMoves > cap.getMaxMoves()) {
+                movesExceeded = true;
+                return false;
             }
-            if (heatingNeeded && !cap.isHeating()) {
-                continue;
+            if (!withinMaxCost(dispatches, moves, totalMoves, baseCost(cap, totalMoves))) {
+                costExceeded = true;
+                return false;
             }
+            return true;
+        }
 
-            MaintenancePlan plan = maintenanceService.snapshot(d.getId());
-            if (!allowHighRiskFallback && plan != null && "HIGH".equalsIgnoreCase(plan.getRiskLevel())) {
-                continue;
+        String failedConstraint(boolean requirementsValid) {
+            if (!requirementsValid) {
+                return "requirements";
             }
-
-            double healthScore = plan == null ? 50.0 : 100.0 - plan.getRiskScore();
-            double bufferScore = plan == null ? 0.0 : plan.getMissionBuffer() * 2.0;
-            double capacityScore = cap.getCapacity() * 0.1;
-            double candidateScore = healthScore + bufferScore + capacityScore;
-
-            if (candidateScore > bestScore) {
-                bestScore = candidateScore;
-                best = new DroneSelection(d, plan);
+            if (costExceeded) {
+                return "maxCost";
+            }
+            if (movesExceeded) {
+                return "maxMoves";
+            }
+            if (alreadyAssigned) {
+                return "fleet";
             }
+            return "capability";
         }
-        return best;
     }
 
-    private record DroneSelection(Drone drone, MaintenancePlan plan) {
+    private boolean withinMaxCost(List<MedDispatchRec> dispatches, int[] moves, int totalMoves, double baseCost) {
+        for (int i = 0; i < dispatches.size(); i++) {
+            MedDispatchRequirements req = dispatches.get(i).getRequirements();
+            if (req == null) {
+                continue;
+            }
+            Double maxCost = req.getMaxCost();
+            if (maxCost == null) {
+                continue;
+            }
+            double share = baseCost * ((double) moves[i] / (double) totalMoves);
+            if (share - maxCost > 1e-9) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private Position createPosition(double lng, double lat) {
-        Position p = new Position();
-        p.setLng(lng);
-        p.setLat(lat);
-        return p;
-    }
+    /**
+     * Move count of each delivery flight of a route, including the hover at the target and, for the last
+     * delivery, the return leg. Mirrors the point counts produced by {@link PathBuffer#appendSegment}.
+     */
+    private int[] legMoves(Launch launch, Targets targets, int[] members) {
+        int[] moves = new int[members.length];
+        double fromLng = launch.lng();
+        double fromLat = launch.lat();
+        for (int m = 0; m < members.length; m++) {
+            double toLng = targets.lng()[members[m]];
+            double toLat = targets.lat()[members[m]];
+
+            int steps = segmentSteps(fromLng, fromLat, toLng, toLat);
+            int points = steps + 1;
+            double endLng = steps > 0 ? fromLng + (toLng - fromLng) : fromLng;
+            double endLat = steps > 0 ? fromLat + (toLat - fromLat) : fromLat;
+            if (endLng != toLng || endLat != toLat) {
+                points++;
+            }
+            points++;
+            if (m == members.length - 1) {
+                points += segmentSteps(toLng, toLat, launch.lng(), launch.lat());
+            }
+            moves[m] = points - 1;
 
-    private List<Position> buildSegment(Position from, Position to) {
-        List<Position> result = new ArrayList<>();
-        if (from == null || to == null) {
-            return result;
+            fromLng = toLng;
+            fromLat = toLat;
         }
+        return moves;
+    }
 
-        double dx = to.getLng() - from.getLng();
-        double dy = to.getLat() - from.getLat();
+    private int segmentSteps(double fromLng, double fromLat, double toLng, double toLat) {
+        double dx = toLng - fromLng;
+        double dy = toLat - fromLat;
         double distance = Math.sqrt(dx * dx + dy * dy);
         if (distance == 0) {
-            result.add(createPosition(from.getLng(), from.getLat()));
-            return result;
+            return 0;
         }
+        return (int) Math.ceil(distance / STEP);
+    }
 
-        double step = 0.00015;
-        int steps = (int) Math.ceil(distance / step);
+    private record Launch(ServicePoint servicePoint, double lng, double lat) {
+    }
 
-        for (int i = 0; i <= steps; i++) {
-            double t = (double) i / (double) steps;
-            double lng = from.getLng() + dx * t;
-            double lat = from.getLat() + dy * t;
-            result.add(createPosition(lng, lat));
+    /**
+     * Delivery coordinates by dispatch index. Dispatches without a delivery position are laid out
+     * diagonally from the default depot, as before positions were part of the request.
+     */
+    private record Targets(double[] lng, double[] lat) {
+        static Targets of(List<MedDispatchRec> dispatches) {
+            int n = dispatches.size();
+            double[] lng = new double[n];
+            double[] lat = new double[n];
+            for (int i = 0; i < n; i++) {
+                Position delivery = dispatches.get(i).getDelivery();
+                if (delivery != null) {
+                    lng[i] = delivery.getLng();
+                    lat[i] = delivery.getLat();
+                } else {
+                    double offset = DELIVERY_SPACING * (i + 1);
+                    lng[i] = SERVICE_POINT_LNG + offset;
+                    lat[i] = SERVICE_POINT_LAT + offset;
+                }
+            }
+            return new Targets(lng, lat);
         }
-        return result;
     }
-}
 
+    /**
+     * One drone's round trip: member dispatch indices in flight order, the depot it launches from and its
+     * per-delivery move counts.
+     */
+    private record Route(int[] members, Launch launch, int[] legMoves, int plannedMoves) {
+        List<MedDispatchRec> dispatches(List<MedDispatchRec> all) {
+            List<MedDispatchRec> batch = new ArrayList<>(members.length);
+            for (int i : members) {
+                batch.add(all.get(i));
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * Routes with the drones assigned to them so far. When {@code failedConstraint} is set, assignment
+     * stopped at the first route no remaining drone could fly.
+     */
+    private record RoutePlan(Targets targets,
+                             List<Route> routes,
+                             List<DroneCapabilityIndex.Selection> selections,
+                             int plannedMoves,
+                             String failedConstraint) {
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.cw1.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits a large dispatch batch into geographically compact groups of bounded size, one per route.
+ * Uses k-means with farthest-point seeding and a size-capped assignment step, so every group is at
+ * most {@code ceil(n / k)} deliveries. Seeding and each iteration sort the points once and look
+ * centroids up through a grid, so the cost grows as O(n log n) rather than with the n · k point-centroid
+ * pairs. Deterministic for a given input.
+ */
+public final class DispatchClusterer {
+
+    private static final int MAX_ITERATIONS = 10;
+
+    private DispatchClusterer() {
+    }
+
+    /**
+     * Groups the points {@code (lng[i], lat[i])} into {@code k} clusters. Each group lists member
+     * indices in ascending order, and groups are ordered by their first member.
+     */
+    public static List<int[]> cluster(double[] lng, double[] lat, int k) {
+        return cluster(lng, lat, k, PlanningBudget.unlimited());
+    }
+
+    /**
+     * As {@link #cluster(double[], double[], int)}, stopping the k-means refinement when the budget runs
+     * out. The first size-capped assignment is always made.
+     */
+    public static List<int[]> cluster(double[] lng, double[] lat, int k, PlanningBudget budget) {
+        int n = lng.length;
+        if (k <= 1 || n <= 1) {
+            int[] all = new int[n];
+            Arrays.setAll(all, i -> i);
+            return List.of(all);
+        }
+        k = Math.min(k, n);
+        int capacity = (n + k - 1) / k;
+
+        double[] cLng = new double[k];
+        double[] cLat = new double[k];
+        seed(lng, lat, cLng, cLat);
+
+        int[] assignment = new int[n];
+        Arrays.fill(assignment, -1);
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            if (iteration > 0 && budget.expired()) {
+                budget.markTruncated();
+                break;
+            }
+            int[] next = assign(lng, lat, cLng, cLat, capacity);
+            boolean changed = !Arrays.equals(next, assignment);
+            assignment = next;
+            if (!changed) {
+                break;
+            }
+            recenter(lng, lat, assignment, cLng, cLat);
+        }
+
+        List<List<Integer>> members = new ArrayList<>(k);
+        for (int c = 0; c < k; c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int i = 0; i < n; i++) {
+            members.get(assignment[i]).add(i);
+        }
+        List<int[]> groups = new ArrayList<>(k);
+        for (List<Integer> group : members) {
+            if (!group.isEmpty()) {
+                groups.add(group.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+        groups.sort((a, b) -> Integer.compare(a[0], b[0]));
+        return groups;
+    }
+
+    /**
+     * Seeds spread along a Z-order curve over the points' bounding box: the points are sorted by their
+     * interleaved grid coordinates and the middle point of each of {@code k} equal runs becomes a seed.
+     * Neighbouring points share runs, so the seeds start near the groups they will end up centring.
+     */
+    private static void seed(double[] lng, double[] lat, double[] cLng, double[] cLat) {
+        int n = lng.length;
+        int k = cLng.length;
+        Bounds bounds = Bounds.of(lng, lat, null, null);
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            int x = (int) (bounds.x(lng[i]) * 0xffff);
+            int y = (int) (bounds.y(lat[i]) * 0xffff);
+            order[i] = (interleave(x) | interleave(y) << 1) << 31 | i;
+        }
+        Arrays.sort(order);
+        for (int c = 0; c < k; c++) {
+            int i = (int) (order[(int) ((2L * c + 1) * n / (2L * k))] & Integer.MAX_VALUE);
+            cLng[c] = lng[i];
+            cLat[c] = lat[i];
+        }
+    }
+
+    /**
+     * Spreads the low 16 bits of {@code v} to the even bit positions.
+     */
+    private static long interleave(int v) {
+        long x = v & 0xffffL;
+        x = (x | x << 8) & 0x00ff00ffL;
+        x = (x | x << 4) & 0x0f0f0f0fL;
+        x = (x | x << 2) & 0x33333333L;
+        x = (x | x << 1) & 0x55555555L;
+        return x;
+    }
+
+    /**
+     * Assigns each point to its nearest centroid, visiting the points closest to their centroid first; a
+     * point whose nearest centroid is already full spills to the nearest one with room. Centroids are
+     * looked up through a {@link CentroidGrid}, so a call costs O(n log n) rather than O(n · k).
+     */
+    private static int[] assign(double[] lng, double[] lat, double[] cLng, double[] cLat, int capacity) {
+        int n = lng.length;
+        int k = cLng.length;
+        CentroidGrid grid = new CentroidGrid(Bounds.of(lng, lat, cLng, cLat), cLng, cLat);
+        int[] nearest = new int[n];
+        // (distance, index) packed so a primitive sort orders points by distance, ties by index; the
+        // float bits of a non-negative distance sort like the distance itself
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            nearest[i] = grid.nearest(lng[i], lat[i], null, 0);
+            double distance = squared(lng[i] - cLng[nearest[i]], lat[i] - cLat[nearest[i]]);
+            order[i] = ((long) Float.floatToIntBits((float) distance) << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] assignment = new int[n];
+        int[] load = new int[k];
+        for (long key : order) {
+            int i = (int) key;
+            int c = nearest[i];
+            if (load[c] >= capacity) {
+                c = grid.nearest(lng[i], lat[i], load, capacity);
+            }
+            assignment[i] = c;
+            load[c]++;
+        }
+        return assignment;
+    }
+
+    private static void recenter(double[] lng, double[] lat, int[] assignment, double[] cLng, double[] cLat) {
+        int k = cLng.length;
+        double[] sumLng = new double[k];
+        double[] sumLat = new double[k];
+        int[] count = new int[k];
+        for (int i = 0; i < assignment.length; i++) {
+            sumLng[assignment[i]] += lng[i];
+            sumLat[assignment[i]] += lat[i];
+            count[assignment[i]]++;
+        }
+        for (int c = 0; c < k; c++) {
+            if (count[c] > 0) {
+                cLng[c] = sumLng[c] / count[c];
+                cLat[c] = sumLat[c] / count[c];
+            }
+        }
+    }
+
+    private static double squared(double dx, double dy) {
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Axis-aligned box around a set of points.
+     */
+    private record Bounds(double minLng, double minLat, double width, double height) {
+
+        static Bounds of(double[] lng, double[] lat, double[] moreLng, double[] moreLat) {
+            double minLng = Double.POSITIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+            double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+            for (int pass = 0; pass < 2; pass++) {
+                double[] xs = pass == 0 ? lng : moreLng;
+                double[] ys = pass == 0 ? lat : moreLat;
+                if (xs == null) {
+                    continue;
+                }
+                for (int i = 0; i < xs.length; i++) {
+                    minLng = Math.min(minLng, xs[i]);
+                    maxLng = Math.max(maxLng, xs[i]);
+                    minLat = Math.min(minLat, ys[i]);
+                    maxLat = Math.max(maxLat, ys[i]);
+                }
+            }
+            return new Bounds(minLng, minLat, maxLng - minLng, maxLat - minLat);
+        }
+
+        /**
+         * Position of a longitude across the box, in [0, 1]; 0 when the box has no width.
+         */
+        double x(double lng) {
+            return width > 0 ? Math.min(1.0, (lng - minLng) / width) : 0.0;
+        }
+
+        /**
+         * Position of a latitude across the box, in [0, 1]; 0 when the box has no height.
+         */
+        double y(double lat) {
+            return height > 0 ? Math.min(1.0, (lat - minLat) / height) : 0.0;
+        }
+    }
+
+    /**
+     * Uniform grid of about one centroid per cell, bucketed with a counting sort. A nearest query scans
+     * rings of cells outward from the point's cell and stops once the next ring cannot hold anything
+     * closer than the best centroid found.
+     */
+    private static final class CentroidGrid {
+        private final Bounds bounds;
+        private final double[] cLng;
+        private final double[] cLat;
+        private final int side;
+        private final double cellWidth;
+        private final double cellHeight;
+        private final int[] cellStart;
+        private final int[] members;
+
+        CentroidGrid(Bounds bounds, double[] cLng, double[] cLat) {
+            this.bounds = bounds;
+            this.cLng = cLng;
+            this.cLat = cLat;
+            int k = cLng.length;
+            this.side = Math.max(1, (int) Math.ceil(Math.sqrt(k)));
+            this.cellWidth = bounds.width() / side;
+            this.cellHeight = bounds.height() / side;
+            this.cellStart = new int[side * side + 1];
+            this.members = new int[k];
+            int[] cellOf = new int[k];
+            for (int c = 0; c < k; c++) {
+                cellOf[c] = cell(column(cLng[c]), row(cLat[c]));
+                cellStart[cellOf[c] + 1]++;
+            }
+            for (int i = 0; i < side * side; i++) {
+                cellStart[i + 1] += cellStart[i];
+            }
+            int[] fill = Arrays.copyOf(cellStart, side * side);
+            for (int c = 0; c < k; c++) {
+                members[fill[cellOf[c]]++] = c;
+            }
+        }
+
+        /**
+         * Nearest centroid, lowest index on ties; with {@code load} given, only centroids below
+         * {@code capacity}. Returns -1 when no centroid qualifies.
+         */
+        int nearest(double lng, double lat, int[] load, int capacity) {
+            int column = column(lng);
+            int row = row(lat);
+            double ring = Math.min(cellWidth > 0 ? cellWidth : Double.POSITIVE_INFINITY,
+                    cellHeight > 0 ? cellHeight : Double.POSITIVE_INFINITY);
+            int best = -1;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (int r = 0; r < side; r++) {
+                for (int y = Math.max(0, row - r); y <= Math.min(side - 1, row + r); y++) {
+                    boolean edgeRow = y == row - r || y == row + r;
+                    for (int x = Math.max(0, column - r); x <= Math.min(side - 1, column + r); x++) {
+                        if (!edgeRow && x != column - r && x != column + r) {
+                            continue;
+                        }
+                        int cell = cell(x, y);
+                        for (int m = cellStart[cell]; m < cellStart[cell + 1]; m++) {
+                            int c = members[m];
+                            if (load != null && load[c] >= capacity) {
+                                continue;
+                            }
+                            double d = squared(lng - cLng[c], lat - cLat[c]);
+                            if (d < bestDistance || (d == bestDistance && c < best)) {
+                                bestDistance = d;
+                                best = c;
+                            }
+                        }
+                    }
+                }
+                // every cell beyond ring r is at least r cells away along one axis
+                double reach = r * ring;
+                if (best >= 0 && reach * reach > bestDistance) {
+                    break;
+                }
+            }
+            return best;
+        }
+
+        private int column(double lng) {
+            return Math.min(side - 1, (int) (bounds.x(lng) * side));
+        }
+
+        private int row(double lat) {
+            return Math.min(side - 1, (int) (bounds.y(lat) * side));
+        }
+
+        private int cell(int column, int row) {
+            return row * side + column;
+        }
+    }
+}
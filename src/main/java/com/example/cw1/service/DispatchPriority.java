@@ -0,0 +1,50 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.MedDispatchRec;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Planning lanes, most urgent first.
+ */
+public enum DispatchPriority {
+    URGENT,
+    STANDARD,
+    BULK;
+
+    /**
+     * Lane for a planning request: the {@code X-Dispatch-Priority} header when given, otherwise the most
+     * urgent {@code priority} among the dispatches, otherwise {@link #STANDARD}.
+     */
+    public static DispatchPriority resolve(String header, List<MedDispatchRec> dispatches) {
+        if (header != null && !header.isBlank()) {
+            return parse(header);
+        }
+        DispatchPriority lane = null;
+        if (dispatches != null) {
+            for (MedDispatchRec rec : dispatches) {
+                if (rec == null || rec.getPriority() == null || rec.getPriority().isBlank()) {
+                    continue;
+                }
+                DispatchPriority p = parse(rec.getPriority());
+                if (lane == null || p.ordinal() < lane.ordinal()) {
+                    lane = p;
+                }
+            }
+        }
+        return lane == null ? STANDARD : lane;
+    }
+
+    public static DispatchPriority parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown priority '" + value + "', expected urgent, standard or bulk");
+        }
+    }
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
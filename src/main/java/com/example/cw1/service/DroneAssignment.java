@@ -0,0 +1,114 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.MaintenancePlan;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost assignment of routes to drones (Hungarian algorithm with potentials, O(rows² · columns)).
+ * Used when one batch is split into several routes, so the drones are matched to all routes at once rather
+ * than the best drone going to whichever route happens to be planned first.
+ */
+public final class DroneAssignment {
+
+    /**
+     * Cost of a pair that must not be assigned. Finite so the potentials stay well defined; a solution
+     * using such a pair means no complete assignment exists.
+     */
+    public static final double FORBIDDEN = 1e12;
+
+    static final double HIGH_RISK_PENALTY = 1e6;
+    static final double SPARE_CAPACITY_WEIGHT = 0.1;
+
+    private DroneAssignment() {
+    }
+
+    /**
+     * Cost of flying a route needing {@code capacityNeeded} with the selected drone: the same health and
+     * mission buffer terms that rank drones in {@link DroneCapabilityIndex}, unused capacity instead of raw
+     * capacity (so big drones stay free for big routes), plus the route's flight cost on that drone.
+     * HIGH risk drones carry a penalty that outweighs every other term, so they are used only when the
+     * routes cannot be covered otherwise.
+     */
+    public static double cost(MaintenancePlan plan, double capacity, double capacityNeeded, double flightCost) {
+        double healthScore = plan == null ? 50.0 : 100.0 - plan.getRiskScore();
+        double bufferScore = plan == null ? 0.0 : plan.getMissionBuffer() * 2.0;
+        double risk = plan != null && "HIGH".equalsIgnoreCase(plan.getRiskLevel()) ? HIGH_RISK_PENALTY : 0.0;
+        return risk - healthScore - bufferScore + (capacity - capacityNeeded) * SPARE_CAPACITY_WEIGHT + flightCost;
+    }
+
+    /**
+     * Column assigned to each row of {@code cost} (rows ≤ columns) minimising the total, or null when the
+     * budget runs out first. Rows are added one at a time and the budget is polled between them.
+     */
+    public static int[] solve(double[][] cost, PlanningBudget budget) {
+        int n = cost.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        int m = cost[0].length;
+        if (m < n) {
+            throw new IllegalArgumentException("Assignment needs at least as many columns as rows");
+        }
+        // 1-based: column 0 is the virtual start of each augmenting path
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] rowOf = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minSlack = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            if (i > 1 && budget.expired()) {
+                budget.markTruncated();
+                return null;
+            }
+            rowOf[0] = i;
+            int j0 = 0;
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = rowOf[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double slack = cost[i0 - 1][j - 1] - u[i0] - v[j];
+                    if (slack < minSlack[j]) {
+                        minSlack[j] = slack;
+                        way[j] = j0;
+                    }
+                    if (minSlack[j] < delta) {
+                        delta = minSlack[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[rowOf[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (rowOf[j0] != 0);
+            do {
+                int j1 = way[j0];
+                rowOf[j0] = rowOf[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] assignment = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (rowOf[j] != 0) {
+                assignment[rowOf[j] - 1] = j - 1;
+            }
+        }
+        return assignment;
+    }
+}
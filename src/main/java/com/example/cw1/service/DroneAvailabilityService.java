@@ -2,19 +2,37 @@ package com.example.cw1.service;
 
 import com.example.cw1.dto.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.DayOfWeek;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 @Service
 public class DroneAvailabilityService {
 
+    /** Signature results kept per fleet version; each is one bit per drone. */
+    private static final int SIGNATURE_CACHE_ENTRIES = 1024;
+
     @Autowired
     private IlpDataService ilpDataService;
 
+    /**
+     * Per-drone slot checks per requirement signature above which the fleet is split over the common
+     * fork-join pool.
+     */
+    @Value("${planning.availability.parallel-threshold:200000}")
+    private long parallelThreshold = 200_000;
+
+    private volatile FleetResults results;
+
     public List<String> findAvailableDrones(List<MedDispatchRec> dispatches) {
 
         List<String> result = new ArrayList<>();
@@ -22,55 +40,210 @@ public class DroneAvailabilityService {
 
         if (drones == null) return result;
 
-        for (Drone drone : drones) {
-            boolean ok = canHandleAll(dispatches, drone);
-            if (ok) {
+        if (dispatches.isEmpty()) {
+            for (Drone drone : drones) {
                 result.add(drone.getId());
             }
+            return result;
+        }
+
+        for (int i : availableIndices(drones, dispatches)) {
+            result.add(drones[i].getId());
         }
         return result;
     }
 
-    private boolean canHandleAll(List<MedDispatchRec> dispatches, Drone drone) {
-        for (MedDispatchRec rec : dispatches) {
-            if (!canHandleOne(rec, drone)) return false;
+    /**
+     * Indices, in fleet order, of the drones in an already fetched listing that can take every dispatch
+     * of a non-empty batch. Lets callers that plan many batches against one listing fetch it once.
+     */
+    public int[] availableIndices(Drone[] drones, List<MedDispatchRec> dispatches) {
+        FleetResults fleet = resultsFor(drones);
+        long[] available = null;
+        for (Signature signature : signatures(dispatches)) {
+            long[] bits = fleet.get(signature, () -> evaluate(signature, drones, fleet.availability));
+            if (available == null) {
+                available = bits.clone();
+            } else {
+                for (int w = 0; w < available.length; w++) {
+                    available[w] &= bits[w];
+                }
+            }
         }
-        return true;
+
+        return indices(available);
     }
 
-    private boolean canHandleOne(MedDispatchRec rec, Drone drone) {
+    /**
+     * For each dispatch on its own, the drones able to take it, as {@link #availableIndices} returns them for
+     * a one-dispatch batch. The listing is fingerprinted once for the whole list and dispatches with the same
+     * signature share one result array, so callers must not modify the arrays.
+     */
+    public int[][] availableIndicesEach(Drone[] drones, List<MedDispatchRec> dispatches) {
+        FleetResults fleet = resultsFor(drones);
+        Map<Signature, int[]> resolved = new HashMap<>();
+        int[][] result = new int[dispatches.size()][];
+        for (int d = 0; d < result.length; d++) {
+            result[d] = resolved.computeIfAbsent(signature(dispatches.get(d)),
+                    signature -> indices(fleet.get(signature, () -> evaluate(signature, drones, fleet.availability))));
+        }
+        return result;
+    }
 
-        DroneCapability cap = drone.getCapability();
-        if (cap == null) return false;
+    private static int[] indices(long[] available) {
+        int count = 0;
+        for (long bits : available) {
+            count += Long.bitCount(bits);
+        }
+        int[] indices = new int[count];
+        int k = 0;
+        for (int w = 0; w < available.length; w++) {
+            for (long bits = available[w]; bits != 0; bits &= bits - 1) {
+                indices[k++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return indices;
+    }
 
-        if (!cap.supportsCapacity(rec.requiredCapacity())) return false;
+    /**
+     * Bitmaps and signature results are kept for one fleet version; ILP returns fresh objects on every
+     * call, so the version is the content fingerprint of the listing rather than object identity.
+     */
+    private FleetResults resultsFor(Drone[] drones) {
+        long version = FleetFingerprint.of(drones);
+        FleetResults current = results;
+        if (current == null || current.availability.version() != version || current.availability.size() != drones.length) {
+            current = new FleetResults(FleetAvailability.compile(drones, version));
+            results = current;
+        }
+        return current;
+    }
 
-        if (!cap.supportsTemperature(rec.needCooling(), rec.needHeating())) return false;
+    int cachedSignatures() {
+        FleetResults current = results;
+        return current == null ? 0 : current.size();
+    }
 
-        LocalDate d = rec.getDateAsLocalDate();
-        LocalTime t = rec.getTimeAsLocalTime();
+    /**
+     * Collapses a batch to one signature per time of week. Every dispatch of a batch must fit the same
+     * drone, so dispatches sharing a time reduce to the largest capacity and every temperature control any
+     * of them needs.
+     */
+    private static Collection<Signature> signatures(List<MedDispatchRec> dispatches) {
+        Map<Long, Signature> byTime = new LinkedHashMap<>();
+        for (MedDispatchRec rec : dispatches) {
+            Signature signature = signature(rec);
+            byTime.merge(signature.timeOfWeek(), signature, Signature::strictest);
+        }
+        return byTime.values();
+    }
 
-        return matchesWeekly(drone, d, t);
+    private static Signature signature(MedDispatchRec rec) {
+        long timeOfWeek = FleetAvailability.dayIndex(rec.epochDay()) * SlotIntervalTree.NANOS_PER_DAY + rec.nanoOfDay();
+        return new Signature(timeOfWeek, rec.requiredCapacity(), rec.needCooling(), rec.needHeating());
     }
 
-    private boolean matchesWeekly(Drone drone, LocalDate date, LocalTime time) {
+    /**
+     * Drones able to take a signature, as a fleet-order bitset. Whole-minute times are answered from the
+     * inverted index; drones it cannot answer for are checked slot by slot.
+     */
+    private long[] evaluate(Signature signature, Drone[] drones, FleetAvailability fleet) {
+        long[] bits = new long[(drones.length + 63) >>> 6];
+        int minute = signature.minuteOfWeek();
+        if (minute >= 0) {
+            for (int i : fleet.query(signature.capacity(), signature.cooling(), signature.heating(), new int[]{minute})) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+
+        IntStream slow = IntStream.range(0, drones.length).filter(i -> minute < 0 || !fleet.isCompiled(i));
+        long work = minute < 0 ? drones.length : drones.length - fleet.compiledCount();
+        if (work >= parallelThreshold) {
+            slow = slow.parallel();
+        }
+        for (int i : slow.filter(i -> canHandle(drones[i], signature)).toArray()) {
+            bits[i >>> 6] |= 1L << i;
+        }
+        return bits;
+    }
+
+    private boolean canHandle(Drone drone, Signature signature) {
+
+        DroneCapability cap = drone.getCapability();
+        if (cap == null) return false;
+
+        if (!cap.supportsCapacity(signature.capacity())) return false;
+
+        if (!cap.supportsTemperature(signature.cooling(), signature.heating())) return false;
+
         List<DroneWeeklyAvailability> wa = drone.getWeeklyAvailabilities();
 
         if (wa == null || wa.isEmpty()) return true;
 
+        DayOfWeek day = DayOfWeek.of((int) (signature.timeOfWeek() / SlotIntervalTree.NANOS_PER_DAY) + 1);
+        long nanoOfDay = signature.timeOfWeek() % SlotIntervalTree.NANOS_PER_DAY;
         for (DroneWeeklyAvailability slot : wa) {
-            if (slot.getDay() == date.getDayOfWeek()) {
-                LocalTime from = slot.getFromAsLocalTime();
-                LocalTime to = slot.getToAsLocalTime();
-
-                if ((time.equals(from) || time.isAfter(from)) && time.isBefore(to)) {
-                    return true;
-                }
+            // a slot ILP sent with a missing or unreadable bound offers no time
+            if (slot != null && slot.offersTime() && slot.matches(day, nanoOfDay)) {
+                return true;
             }
         }
         return false;
     }
-}
 
+    /**
+     * What a group of dispatches at one time of week asks of a drone.
+     */
+    private record Signature(long timeOfWeek, double capacity, boolean cooling, boolean heating) {
+
+        Signature strictest(Signature other) {
+            double needed = Double.isNaN(capacity) || Double.isNaN(other.capacity)
+                    ? Double.NaN
+                    : Math.max(capacity, other.capacity);
+            return new Signature(timeOfWeek, needed, cooling || other.cooling, heating || other.heating);
+        }
+
+        int minuteOfWeek() {
+            int minute = TemporalFields.minuteOfDay(timeOfWeek % SlotIntervalTree.NANOS_PER_DAY);
+            return minute < 0 ? -1 : (int) (timeOfWeek / SlotIntervalTree.NANOS_PER_DAY) * FleetAvailability.MINUTES_PER_DAY + minute;
+        }
+    }
+
+    /**
+     * Compiled bitmaps of one fleet version with the signature results computed against them, least
+     * recently used evicted first.
+     */
+    private static final class FleetResults {
+        private final FleetAvailability availability;
+        private final Map<Signature, long[]> bySignature = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Signature, long[]> eldest) {
+                return size() > SIGNATURE_CACHE_ENTRIES;
+            }
+        };
 
+        FleetResults(FleetAvailability availability) {
+            this.availability = availability;
+        }
+
+        long[] get(Signature signature, Supplier<long[]> evaluate) {
+            synchronized (bySignature) {
+                long[] cached = bySignature.get(signature);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            long[] computed = evaluate.get();
+            synchronized (bySignature) {
+                bySignature.put(signature, computed);
+            }
+            return computed;
+        }
 
+        int size() {
+            synchronized (bySignature) {
+                return bySignature.size();
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.Drone;
+import com.example.cw1.dto.DroneCapability;
+import com.example.cw1.dto.MaintenancePlan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Skyline index over the fleet used for drone selection.
+ * Drones are grouped by (cooling, heating) and sorted by capacity descending, so the drones able to
+ * carry a load form a prefix of each group found by binary search. A max segment tree over each group
+ * keeps the best-scoring drone of any prefix.
+ * <p>
+ * An index is immutable once built and describes one fleet listing under one maintenance version; a new
+ * listing or new telemetry means a new index, so a request that obtained an index keeps ranking against
+ * the drones it was built from. Full candidate rankings are memoised per requirement signature for the
+ * life of the index, with hit and miss counts accumulated in a {@link RankingStats} shared across indexes.
+ */
+public final class DroneCapabilityIndex {
+
+    private static final int GROUPS = 4;
+    private static final int RANKING_CACHE_ENTRIES = 256;
+
+    private final Group[] groups;
+    private final long fleetVersion;
+    private final long maintenanceVersion;
+    private final RankingStats stats;
+    private final Map<Requirement, List<Selection>> rankings =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Requirement, List<Selection>> eldest) {
+                    return size() > RANKING_CACHE_ENTRIES;
+                }
+            };
+
+    private DroneCapabilityIndex(Group[] groups, long fleetVersion, long maintenanceVersion, RankingStats stats) {
+        this.groups = groups;
+        this.fleetVersion = fleetVersion;
+        this.maintenanceVersion = maintenanceVersion;
+        this.stats = stats;
+    }
+
+    public static DroneCapabilityIndex build(Drone[] drones,
+                                             long fleetVersion,
+                                             long maintenanceVersion,
+                                             Map<String, MaintenancePlan> plans) {
+        return build(drones, fleetVersion, maintenanceVersion, plans, new RankingStats());
+    }
+
+    public static DroneCapabilityIndex build(Drone[] drones,
+                                             long fleetVersion,
+                                             long maintenanceVersion,
+                                             Map<String, MaintenancePlan> plans,
+                                             RankingStats stats) {
+        List<List<Slot>> buckets = new ArrayList<>(GROUPS);
+        for (int g = 0; g < GROUPS; g++) {
+            buckets.add(new ArrayList<>());
+        }
+        if (drones != null) {
+            for (int i = 0; i < drones.length; i++) {
+                Drone d = drones[i];
+                if (d == null || d.getCapability() == null) {
+                    continue;
+                }
+                DroneCapability cap = d.getCapability();
+                buckets.get(groupOf(cap.isCooling(), cap.isHeating())).add(new Slot(d, i));
+            }
+        }
+
+        Group[] groups = new Group[GROUPS];
+        for (int g = 0; g < GROUPS; g++) {
+            List<Slot> bucket = buckets.get(g);
+            // stable sort keeps fleet order among equal capacities, matching the linear scan's tie-break
+            bucket.sort(Comparator.comparingDouble((Slot s) -> s.drone.getCapability().getCapacity()).reversed());
+            Group group = new Group(bucket.size());
+            for (int p = 0; p < bucket.size(); p++) {
+                Slot slot = bucket.get(p);
+                group.drones[p] = slot.drone;
+                group.capacity[p] = slot.drone.getCapability().getCapacity();
+                group.fleetOrder[p] = slot.fleetOrder;
+                MaintenancePlan plan = plans == null ? null : plans.get(slot.drone.getId());
+                group.setPlan(p, plan);
+            }
+            group.buildTrees();
+            groups[g] = group;
+        }
+        return new DroneCapabilityIndex(groups, fleetVersion, maintenanceVersion, stats);
+    }
+
+    public boolean isBuiltFor(long fleetVersion, long maintenanceVersion) {
+        return this.fleetVersion == fleetVersion && this.maintenanceVersion == maintenanceVersion;
+    }
+
+    /**
+     * Returns the best-scoring drone that satisfies the requirements, preferring drones that are not
+     * HIGH risk and falling back to HIGH risk ones only when nothing else fits.
+     */
+    public Selection best(double capacityNeeded, boolean coolingNeeded, boolean heatingNeeded) {
+        Selection safe = bestAcrossGroups(capacityNeeded, coolingNeeded, heatingNeeded, false);
+        if (safe != null) {
+            return safe;
+        }
+        return bestAcrossGroups(capacityNeeded, coolingNeeded, heatingNeeded, true);
+    }
+
+    /**
+     * Like {@link #best(double, boolean, boolean)}, but skips drones rejected by {@code feasible}.
+     * The segment tree answer is tried first; only when it is rejected are the remaining candidates
+     * scanned in ranking order.
+     */
+    public Selection best(double capacityNeeded,
+                          boolean coolingNeeded,
+                          boolean heatingNeeded,
+                          Predicate<Drone> feasible) {
+        Selection first = best(capacityNeeded, coolingNeeded, heatingNeeded);
+        if (first == null || feasible == null || feasible.test(first.drone())) {
+            return first;
+        }
+        for (Selection candidate : ranked(capacityNeeded, coolingNeeded, heatingNeeded, Integer.MAX_VALUE)) {
+            if (candidate.drone() != first.drone() && feasible.test(candidate.drone())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * All drones satisfying the requirements in selection order: non-HIGH risk drones by descending
+     * score, followed by HIGH risk drones by descending score. At most {@code limit} entries are returned.
+     * The returned list is shared and read-only.
+     */
+    public List<Selection> ranked(double capacityNeeded,
+                                  boolean coolingNeeded,
+                                  boolean heatingNeeded,
+                                  int limit) {
+        Requirement key = new Requirement(capacityNeeded, coolingNeeded, heatingNeeded);
+        List<Selection> all;
+        synchronized (rankings) {
+            all = rankings.get(key);
+        }
+        if (all == null) {
+            stats.misses.increment();
+            all = rankAll(capacityNeeded, coolingNeeded, heatingNeeded);
+            synchronized (rankings) {
+                rankings.put(key, all);
+            }
+        } else {
+            stats.hits.increment();
+        }
+        return limit >= all.size() ? all : all.subList(0, Math.max(0, limit));
+    }
+
+    public int cachedRankings() {
+        synchronized (rankings) {
+            return rankings.size();
+        }
+    }
+
+    /**
+     * Ranking cache hits and misses, accumulated across the indexes built with it.
+     */
+    public static final class RankingStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        public long hits() {
+            return hits.sum();
+        }
+
+        public long misses() {
+            return misses.sum();
+        }
+    }
+
+    private List<Selection> rankAll(double capacityNeeded, boolean coolingNeeded, boolean heatingNeeded) {
+        List<int[]> safe = new ArrayList<>();
+        List<int[]> risky = new ArrayList<>();
+        for (int g = 0; g < GROUPS; g++) {
+            if (!groupMatches(g, coolingNeeded, heatingNeeded)) {
+                continue;
+            }
+            Group group = groups[g];
+            int eligible = group.eligibleCount(capacityNeeded);
+            for (int p = 0; p < eligible; p++) {
+                (group.highRisk[p] ? risky : safe).add(new int[]{g, p});
+            }
+        }
+        Comparator<int[]> order = (a, b) -> {
+            if (a[0] == b[0] && a[1] == b[1]) {
+                return 0;
+            }
+            return better(groups[a[0]], a[1], groups[b[0]], b[1]) ? -1 : 1;
+        };
+        safe.sort(order);
+        risky.sort(order);
+
+        List<Selection> result = new ArrayList<>(safe.size() + risky.size());
+        for (List<int[]> part : List.of(safe, risky)) {
+            for (int[] loc : part) {
+                Group group = groups[loc[0]];
+                result.add(new Selection(group.drones[loc[1]], group.plans[loc[1]]));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private Selection bestAcrossGroups(double capacityNeeded,
+                                       boolean coolingNeeded,
+                                       boolean heatingNeeded,
+                                       boolean allowHighRisk) {
+        Group bestGroup = null;
+        int bestPos = -1;
+        for (int g = 0; g < GROUPS; g++) {
+            if (!groupMatches(g, coolingNeeded, heatingNeeded)) {
+                continue;
+            }
+            Group group = groups[g];
+            int eligible = group.eligibleCount(capacityNeeded);
+            if (eligible == 0) {
+                continue;
+            }
+            int pos = group.queryBest(eligible, allowHighRisk);
+            if (pos < 0) {
+                continue;
+            }
+            if (bestGroup == null || better(group, pos, bestGroup, bestPos)) {
+                bestGroup = group;
+                bestPos = pos;
+            }
+        }
+        if (bestGroup == null) {
+            return null;
+        }
+        return new Selection(bestGroup.drones[bestPos], bestGroup.plans[bestPos]);
+    }
+
+    private static boolean better(Group a, int pa, Group b, int pb) {
+        double sa = a.score[pa];
+        double sb = b.score[pb];
+        if (sa != sb) {
+            return sa > sb;
+        }
+        return a.fleetOrder[pa] < b.fleetOrder[pb];
+    }
+
+    private static boolean groupMatches(int group, boolean coolingNeeded, boolean heatingNeeded) {
+        boolean cooling = (group & 2) != 0;
+        boolean heating = (group & 1) != 0;
+        return (!coolingNeeded || cooling) && (!heatingNeeded || heating);
+    }
+
+    private static int groupOf(boolean cooling, boolean heating) {
+        return (cooling ? 2 : 0) | (heating ? 1 : 0);
+    }
+
+    static double score(MaintenancePlan plan, double capacity) {
+        double healthScore = plan == null ? 50.0 : 100.0 - plan.getRiskScore();
+        double bufferScore = plan == null ? 0.0 : plan.getMissionBuffer() * 2.0;
+        return healthScore + bufferScore + capacity * 0.1;
+    }
+
+    public record Selection(Drone drone, MaintenancePlan plan) {
+    }
+
+    private record Requirement(double capacity, boolean cooling, boolean heating) {
+    }
+
+    private record Slot(Drone drone, int fleetOrder) {
+    }
+
+    private static final class Group {
+        private final int size;
+        private final Drone[] drones;
+        private final double[] capacity;
+        private final int[] fleetOrder;
+        private final MaintenancePlan[] plans;
+        private final double[] score;
+        private final boolean[] highRisk;
+        private final int[] treeAll;
+        private final int[] treeSafe;
+
+        Group(int size) {
+            this.size = size;
+            this.drones = new Drone[size];
+            this.capacity = new double[size];
+            this.fleetOrder = new int[size];
+            this.plans = new MaintenancePlan[size];
+            this.score = new double[size];
+            this.highRisk = new boolean[size];
+            this.treeAll = new int[2 * Math.max(1, size)];
+            this.treeSafe = new int[2 * Math.max(1, size)];
+            Arrays.fill(treeAll, -1);
+            Arrays.fill(treeSafe, -1);
+        }
+
+        void setPlan(int pos, MaintenancePlan plan) {
+            plans[pos] = plan;
+            score[pos] = score(plan, capacity[pos]);
+            highRisk[pos] = plan != null && "HIGH".equalsIgnoreCase(plan.getRiskLevel());
+        }
+
+        /**
+         * Number of drones whose capacity is at least {@code needed}; capacities are sorted descending.
+         */
+        int eligibleCount(double needed) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (capacity[mid] >= needed) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        void buildTrees() {
+            for (int p = 0; p < size; p++) {
+                treeAll[size + p] = p;
+                treeSafe[size + p] = highRisk[p] ? -1 : p;
+            }
+            for (int i = size - 1; i > 0; i--) {
+                treeAll[i] = pick(treeAll[2 * i], treeAll[2 * i + 1]);
+                treeSafe[i] = pick(treeSafe[2 * i], treeSafe[2 * i + 1]);
+            }
+        }
+
+        /**
+         * Best position within [0, end) using the iterative segment tree query.
+         */
+        int queryBest(int end, boolean allowHighRisk) {
+            int[] tree = allowHighRisk ? treeAll : treeSafe;
+            int best = -1;
+            for (int l = size, r = size + end; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    best = pick(best, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    best = pick(best, tree[--r]);
+                }
+            }
+            return best;
+        }
+
+        private int pick(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (b < 0) {
+                return a;
+            }
+            if (score[a] != score[b]) {
+                return score[a] > score[b] ? a : b;
+            }
+            return fleetOrder[a] <= fleetOrder[b] ? a : b;
+        }
+    }
+}
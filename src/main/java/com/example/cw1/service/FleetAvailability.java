@@ -0,0 +1,382 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.Drone;
+import com.example.cw1.dto.DroneWeeklyAvailability;
+import com.example.cw1.dto.TemporalFields;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Weekly availability of one fleet listing, compiled into a 7 x 1440 minute-of-week bitmap per drone.
+ * Bit {@code m} is set when a dispatch at whole minute {@code m} of the week falls inside one of the
+ * drone's {@code [from, to)} slots, so checking a dispatch is a single bit test. Drones are addressed by
+ * their index in the listing the bitmaps were compiled from; {@link FleetFingerprint} identifies it.
+ * <p>
+ * The listing is also inverted: for every minute, the set of drones available then, alongside cooling
+ * and heating bitsets. These fleet-wide bitsets number drones by descending capacity, so a capacity
+ * cutoff is a prefix and a batch query is a few word-wise ANDs. Minutes between the same slot
+ * boundaries share one bitset, so the inverted index takes (distinct boundaries) x (fleet size / 64)
+ * words rather than one bitset per minute of the week. With diverse slots on a large fleet that product
+ * still grows large, so above {@link #MAX_SEGMENT_WORDS} the per-minute bitsets are not built and queries
+ * test the per-drone bitmaps of the capability-filtered drones instead.
+ */
+public final class FleetAvailability {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    private static final int WORDS = (MINUTES_PER_WEEK + 63) >>> 6;
+    // 8 MiB of segment bitsets
+    static final long MAX_SEGMENT_WORDS = 1L << 20;
+
+    private final long version;
+    private final long[][] weekly;
+    private final boolean[] unrestricted;
+    private final boolean[] compiled;
+
+    // fleet-wide bitsets, bit p = drone byCapacity[p]
+    private int[] byCapacity;
+    private double[] sortedCapacity;
+    private long[] capable;
+    private long[] cooling;
+    private long[] heating;
+    private int segmentCount;
+    private int[] segmentOfMinute;
+    private long[][] segments;
+
+    private FleetAvailability(long version, int size) {
+        this.version = version;
+        this.weekly = new long[size][];
+        this.unrestricted = new boolean[size];
+        this.compiled = new boolean[size];
+    }
+
+    public static FleetAvailability compile(Drone[] drones, long version) {
+        return compile(drones, version, MAX_SEGMENT_WORDS);
+    }
+
+    static FleetAvailability compile(Drone[] drones, long version, long maxSegmentWords) {
+        int n = drones == null ? 0 : drones.length;
+        FleetAvailability fleet = new FleetAvailability(version, n);
+        for (int i = 0; i < n; i++) {
+            Drone drone = drones[i];
+            if (drone == null) {
+                continue;
+            }
+            List<DroneWeeklyAvailability> slots = drone.getWeeklyAvailabilities();
+            if (slots == null || slots.isEmpty()) {
+                fleet.unrestricted[i] = true;
+                fleet.compiled[i] = true;
+                continue;
+            }
+            long[] bits = compileSlots(slots);
+            fleet.weekly[i] = bits;
+            fleet.compiled[i] = bits != null;
+        }
+        fleet.invert(drones, maxSegmentWords);
+        return fleet;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return compiled.length;
+    }
+
+    /**
+     * False when the drone has a null or incomplete slot; callers evaluate such drones slot by slot so that
+     * the missing data surfaces exactly as it does without compilation.
+     */
+    public boolean isCompiled(int drone) {
+        return compiled[drone];
+    }
+
+    public int compiledCount() {
+        int count = 0;
+        for (boolean c : compiled) {
+            if (c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean availableAt(int drone, int minuteOfWeek) {
+        if (unrestricted[drone]) {
+            return true;
+        }
+        long[] bits = weekly[drone];
+        return bits != null && (bits[minuteOfWeek >>> 6] & (1L << minuteOfWeek)) != 0;
+    }
+
+    /**
+     * Drones with a compiled schedule that can take every dispatch of a batch: capacity of at least
+     * {@code capacityNeeded}, the required cooling and heating, and free at each of the given minutes.
+     * Returns fleet indices in ascending order.
+     */
+    public int[] query(double capacityNeeded, boolean coolingNeeded, boolean heatingNeeded, int[] minutesOfWeek) {
+        int eligible = eligibleCount(capacityNeeded);
+        int words = (eligible + 63) >>> 6;
+        long[] result = new long[words];
+        for (int w = 0; w < words; w++) {
+            long bits = capable[w];
+            if (coolingNeeded) {
+                bits &= cooling[w];
+            }
+            if (heatingNeeded) {
+                bits &= heating[w];
+            }
+            if (segments != null) {
+                for (int minute : minutesOfWeek) {
+                    bits &= segments[segmentOfMinute[minute]][w];
+                }
+            } else {
+                for (long candidates = bits; candidates != 0; candidates &= candidates - 1) {
+                    int p = (w << 6) + Long.numberOfTrailingZeros(candidates);
+                    for (int minute : minutesOfWeek) {
+                        if (!availableAt(byCapacity[p], minute)) {
+                            bits &= ~(1L << p);
+                            break;
+                        }
+                    }
+                }
+            }
+            result[w] = bits;
+        }
+        if (words > 0 && (eligible & 63) != 0) {
+            result[words - 1] &= (1L << eligible) - 1;
+        }
+
+        int count = 0;
+        for (long bits : result) {
+            count += Long.bitCount(bits);
+        }
+        int[] indices = new int[count];
+        int k = 0;
+        for (int w = 0; w < words; w++) {
+            for (long bits = result[w]; bits != 0; bits &= bits - 1) {
+                indices[k++] = byCapacity[(w << 6) + Long.numberOfTrailingZeros(bits)];
+            }
+        }
+        Arrays.sort(indices);
+        return indices;
+    }
+
+    /**
+     * Number of runs of minutes between slot boundaries, each sharing one availability bitset.
+     */
+    public int segmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * False when the per-minute bitsets would have exceeded their memory cap and were not built.
+     */
+    public boolean hasSegmentIndex() {
+        return segments != null;
+    }
+
+    private int eligibleCount(double needed) {
+        int lo = 0;
+        int hi = sortedCapacity.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedCapacity[mid] >= needed) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private void invert(Drone[] drones, long maxSegmentWords) {
+        int n = compiled.length;
+        Integer[] order = new Integer[n];
+        double[] capacity = new double[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            Drone d = drones[i];
+            // drones without a capability sort last and are never capable
+            capacity[i] = d == null || d.getCapability() == null || Double.isNaN(d.getCapability().getCapacity())
+                    ? Double.NEGATIVE_INFINITY
+                    : d.getCapability().getCapacity();
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = Double.compare(capacity[b], capacity[a]);
+            return cmp != 0 ? cmp : Integer.compare(a, b);
+        });
+
+        int words = (n + 63) >>> 6;
+        byCapacity = new int[n];
+        sortedCapacity = new double[n];
+        capable = new long[words];
+        cooling = new long[words];
+        heating = new long[words];
+        for (int p = 0; p < n; p++) {
+            int i = order[p];
+            byCapacity[p] = i;
+            sortedCapacity[p] = capacity[i];
+            Drone d = drones[i];
+            if (d == null || d.getCapability() == null || !compiled[i]) {
+                continue;
+            }
+            capable[p >>> 6] |= 1L << p;
+            if (d.getCapability().isCooling()) {
+                cooling[p >>> 6] |= 1L << p;
+            }
+            if (d.getCapability().isHeating()) {
+                heating[p >>> 6] |= 1L << p;
+            }
+        }
+
+        // a new segment starts at every minute where some drone's availability changes; the changes are
+        // found a word at a time by comparing each bitmap with itself shifted by one minute
+        int[] position = new int[n];
+        for (int p = 0; p < n; p++) {
+            position[byCapacity[p]] = p;
+        }
+        // changes at minute m are entries [changesAt[m], changesAt[m + 1]) of changedDrone
+        int[] changesAt = new int[MINUTES_PER_WEEK + 1];
+        for (int i = 0; i < n; i++) {
+            long[] bits = weekly[i];
+            if (bits == null || unrestricted[i]) {
+                continue;
+            }
+            long[] change = changes(bits);
+            for (int w = 0; w < WORDS; w++) {
+                for (long c = change[w]; c != 0; c &= c - 1) {
+                    changesAt[(w << 6) + Long.numberOfTrailingZeros(c) + 2]++;
+                }
+            }
+        }
+        for (int m = 0; m < MINUTES_PER_WEEK; m++) {
+            changesAt[m + 1] += changesAt[m];
+        }
+        int[] changedDrone = new int[changesAt[MINUTES_PER_WEEK]];
+        int[] fill = Arrays.copyOf(changesAt, MINUTES_PER_WEEK);
+        for (int i = 0; i < n; i++) {
+            long[] bits = weekly[i];
+            if (bits == null || unrestricted[i]) {
+                continue;
+            }
+            long[] change = changes(bits);
+            for (int w = 0; w < WORDS; w++) {
+                for (long c = change[w]; c != 0; c &= c - 1) {
+                    changedDrone[fill[(w << 6) + Long.numberOfTrailingZeros(c) + 1]++] = position[i];
+                }
+            }
+        }
+
+        segmentOfMinute = new int[MINUTES_PER_WEEK];
+        int count = 0;
+        for (int m = 0; m < MINUTES_PER_WEEK; m++) {
+            if (m == 0 || changesAt[m + 1] > changesAt[m]) {
+                count++;
+            }
+            segmentOfMinute[m] = count - 1;
+        }
+        segmentCount = count;
+        if ((long) count * words > maxSegmentWords) {
+            segments = null;
+            segmentOfMinute = null;
+            return;
+        }
+
+        // sweep the week: each segment is the previous one with the changed drones flipped
+        segments = new long[count][];
+        long[] set = new long[words];
+        for (int p = 0; p < n; p++) {
+            int i = byCapacity[p];
+            if (compiled[i] && availableAt(i, 0)) {
+                set[p >>> 6] |= 1L << p;
+            }
+        }
+        segments[0] = set;
+        for (int m = 1; m < MINUTES_PER_WEEK; m++) {
+            if (changesAt[m + 1] == changesAt[m]) {
+                continue;
+            }
+            set = set.clone();
+            for (int k = changesAt[m]; k < changesAt[m + 1]; k++) {
+                int p = changedDrone[k];
+                set[p >>> 6] ^= 1L << p;
+            }
+            segments[segmentOfMinute[m]] = set;
+        }
+    }
+
+    /**
+     * Bit {@code m} set when the bitmap differs between minutes {@code m} and {@code m + 1} of the week.
+     */
+    private static long[] changes(long[] bits) {
+        long[] change = new long[WORDS];
+        for (int w = 0; w < WORDS; w++) {
+            long next = (bits[w] >>> 1) | (w + 1 < WORDS ? bits[w + 1] << 63 : 0L);
+            change[w] = bits[w] ^ next;
+        }
+        // the last minute has no successor
+        int last = MINUTES_PER_WEEK - 1;
+        change[last >>> 6] &= ~(-1L << (last & 63));
+        return change;
+    }
+
+    /**
+     * Minute of the week, Monday 00:00 being 0, or -1 when the time is not a whole minute and therefore
+     * cannot be answered from the bitmaps.
+     */
+    public static int minuteOfWeek(LocalDate date, LocalTime time) {
+        return minuteOfWeek(date.toEpochDay(), time.toNanoOfDay());
+    }
+
+    /**
+     * As {@link #minuteOfWeek(LocalDate, LocalTime)}, from the primitive forms kept by the DTOs.
+     */
+    public static int minuteOfWeek(long epochDay, long nanoOfDay) {
+        int minute = TemporalFields.minuteOfDay(nanoOfDay);
+        if (minute < 0) {
+            return -1;
+        }
+        return dayIndex(epochDay) * MINUTES_PER_DAY + minute;
+    }
+
+    /**
+     * Day of the week of an epoch day, Monday being 0; the epoch itself was a Thursday.
+     */
+    public static int dayIndex(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+
+    /**
+     * Returns null when a slot is null or lacks a bound.
+     */
+    private static long[] compileSlots(List<DroneWeeklyAvailability> slots) {
+        long[] bits = new long[WORDS];
+        for (DroneWeeklyAvailability slot : slots) {
+            if (slot == null) {
+                return null;
+            }
+            DayOfWeek day = slot.getDay();
+            if (day == null) {
+                continue;
+            }
+            if (!slot.isComplete()) {
+                return null;
+            }
+            // whole minutes m with from <= m:00 < to
+            int first = TemporalFields.ceilMinutes(slot.fromNanoOfDay());
+            int end = TemporalFields.ceilMinutes(slot.toNanoOfDay());
+            int base = (day.getValue() - 1) * MINUTES_PER_DAY;
+            for (int m = first; m < end; m++) {
+                int bit = base + m;
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.Drone;
+import com.example.cw1.dto.DroneCapability;
+import com.example.cw1.dto.DroneWeeklyAvailability;
+
+import java.util.Objects;
+
+/**
+ * Content hash of an ILP fleet listing. ILP returns freshly deserialized objects on every call,
+ * so derived indexes compare this value instead of object identity to decide when to rebuild.
+ */
+public final class FleetFingerprint {
+
+    private FleetFingerprint() {
+    }
+
+    public static long of(Drone[] drones) {
+        if (drones == null) {
+            return 0L;
+        }
+        long h = 1125899906842597L;
+        for (Drone d : drones) {
+            if (d == null) {
+                h = 31 * h;
+                continue;
+            }
+            h = 31 * h + Objects.hashCode(d.getId());
+            DroneCapability cap = d.getCapability();
+            if (cap != null) {
+                h = 31 * h + (cap.isCooling() ? 1 : 2);
+                h = 31 * h + (cap.isHeating() ? 1 : 2);
+                h = 31 * h + Double.doubleToLongBits(cap.getCapacity());
+                h = 31 * h + cap.getMaxMoves();
+                h = 31 * h + Double.doubleToLongBits(cap.getCostPerMove());
+                h = 31 * h + Double.doubleToLongBits(cap.getCostInitial());
+                h = 31 * h + Double.doubleToLongBits(cap.getCostFinal());
+            }
+            if (d.getWeeklyAvailabilities() != null) {
+                for (DroneWeeklyAvailability slot : d.getWeeklyAvailabilities()) {
+                    if (slot == null) {
+                        continue;
+                    }
+                    h = 31 * h + Objects.hashCode(slot.getDay());
+                    h = 31 * h + slot.fromNanoOfDay();
+                    h = 31 * h + slot.toNanoOfDay();
+                }
+            }
+        }
+        return h;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.DeliveryFlightDto;
+import com.example.cw1.dto.DeliveryPathResponse;
+import com.example.cw1.dto.DronePathDto;
+import com.example.cw1.dto.Position;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Rewrites the flight paths of a {@link DeliveryPathResponse} into one of the compact {@link PathEncoding}s.
+ * The input response is never modified, so it can safely be shared between callers.
+ */
+public final class FlightPathEncoder {
+
+    private static final double POLYLINE_SCALE = 1e5;
+    private static final double VARINT_SCALE = 1e7;
+
+    private FlightPathEncoder() {
+    }
+
+    public static DeliveryPathResponse encode(DeliveryPathResponse response, PathEncoding encoding) {
+        if (response == null || encoding == null || encoding == PathEncoding.JSON) {
+            return response;
+        }
+        DeliveryPathResponse copy = new DeliveryPathResponse();
+        copy.setTotalCost(response.getTotalCost());
+        copy.setTotalMoves(response.getTotalMoves());
+        copy.setMaintenancePlan(response.getMaintenancePlan());
+        copy.setFailedConstraint(response.getFailedConstraint());
+        copy.setPlanStatus(response.getPlanStatus());
+        if (response.getDronePaths() == null) {
+            return copy;
+        }
+
+        List<DronePathDto> paths = new ArrayList<>(response.getDronePaths().size());
+        for (DronePathDto path : response.getDronePaths()) {
+            DronePathDto encodedPath = new DronePathDto();
+            encodedPath.setDroneId(path.getDroneId());
+            encodedPath.setServicePoint(path.getServicePoint());
+            if (path.getDeliveries() != null) {
+                List<DeliveryFlightDto> deliveries = new ArrayList<>(path.getDeliveries().size());
+                for (DeliveryFlightDto delivery : path.getDeliveries()) {
+                    deliveries.add(encodeDelivery(delivery, encoding));
+                }
+                encodedPath.setDeliveries(deliveries);
+            }
+            paths.add(encodedPath);
+        }
+        copy.setDronePaths(paths);
+        return copy;
+    }
+
+    private static DeliveryFlightDto encodeDelivery(DeliveryFlightDto delivery, PathEncoding encoding) {
+        DeliveryFlightDto encoded = new DeliveryFlightDto();
+        encoded.setDeliveryId(delivery.getDeliveryId());
+        encoded.setDeliveryPoint(delivery.getDeliveryPoint());
+        encoded.setEncoding(encoding.label());
+        List<Position> path = delivery.getFlightPath() == null ? List.of() : delivery.getFlightPath();
+        switch (encoding) {
+            case POLYLINE -> encoded.setEncodedPath(polyline(path));
+            case VARINT -> encoded.setEncodedPath(varint(path));
+            case WAYPOINTS -> {
+                encoded.setWaypoints(waypoints(path));
+                encoded.setStepSize(DeliveryPlanningService.STEP);
+            }
+            default -> encoded.setFlightPath(delivery.getFlightPath());
+        }
+        return encoded;
+    }
+
+    /**
+     * Google encoded polyline (precision 5, latitude first as in the reference algorithm).
+     */
+    public static String polyline(List<Position> path) {
+        StringBuilder sb = new StringBuilder(path.size() * 4);
+        long prevLat = 0;
+        long prevLng = 0;
+        for (Position p : path) {
+            long lat = Math.round(p.getLat() * POLYLINE_SCALE);
+            long lng = Math.round(p.getLng() * POLYLINE_SCALE);
+            appendPolylineValue(sb, lat - prevLat);
+            appendPolylineValue(sb, lng - prevLng);
+            prevLat = lat;
+            prevLng = lng;
+        }
+        return sb.toString();
+    }
+
+    private static void appendPolylineValue(StringBuilder sb, long delta) {
+        long value = delta < 0 ? ~(delta << 1) : delta << 1;
+        while (value >= 0x20) {
+            sb.append((char) ((0x20 | (value & 0x1f)) + 63));
+            value >>= 5;
+        }
+        sb.append((char) (value + 63));
+    }
+
+    /**
+     * Base64 of zigzag LEB128 varints: the first point absolute, then per-point deltas, as
+     * (lng, lat) pairs quantized to 1e-7 degrees.
+     */
+    public static String varint(List<Position> path) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(path.size() * 2 + 10);
+        long prevLng = 0;
+        long prevLat = 0;
+        for (Position p : path) {
+            long lng = Math.round(p.getLng() * VARINT_SCALE);
+            long lat = Math.round(p.getLat() * VARINT_SCALE);
+            writeVarint(out, zigzag(lng - prevLng));
+            writeVarint(out, zigzag(lat - prevLat));
+            prevLng = lng;
+            prevLat = lat;
+        }
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    static List<Position> decodeVarint(String encoded) {
+        byte[] bytes = Base64.getDecoder().decode(encoded);
+        List<Position> path = new ArrayList<>();
+        int[] cursor = {0};
+        long lng = 0;
+        long lat = 0;
+        while (cursor[0] < bytes.length) {
+            lng += unzigzag(readVarint(bytes, cursor));
+            lat += unzigzag(readVarint(bytes, cursor));
+            path.add(new Position(lng / VARINT_SCALE, lat / VARINT_SCALE));
+        }
+        return path;
+    }
+
+    /**
+     * Keeps only the points a client needs to re-draw the path with fixed steps: the start, every hover
+     * point (consecutive duplicates, collapsed to one) and the end.
+     */
+    public static List<Position> waypoints(List<Position> path) {
+        List<Position> result = new ArrayList<>();
+        int n = path.size();
+        for (int i = 0; i < n; i++) {
+            Position p = path.get(i);
+            boolean hover = i + 1 < n && samePoint(p, path.get(i + 1));
+            boolean keep = i == 0 || i == n - 1 || hover;
+            if (keep && (result.isEmpty() || !samePoint(result.get(result.size() - 1), p))) {
+                result.add(new Position(p.getLng(), p.getLat()));
+            }
+        }
+        return result;
+    }
+
+    private static boolean samePoint(Position a, Position b) {
+        return a.getLng() == b.getLng() && a.getLat() == b.getLat();
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] cursor) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = bytes[cursor[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.cw1.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of requests carrying an {@code Idempotency-Key} for a fixed time-to-live.
+ * A retry that arrives while the original request is still running waits for the same result instead
+ * of starting a second computation, for at most its planning budget (or {@code max-wait-ms} without one).
+ * Failed requests are forgotten so that they can be retried. The TTL starts when a result completes, and a
+ * finished key moves to the end of the map, so finished keys are in expiry order: when the store is full the
+ * oldest finished entries make room, and a new key is turned away only when every stored key is still in flight.
+ */
+@Component
+public class IdempotencyStore {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final long ttlNanos;
+    private final int maxKeys;
+    private final long maxWaitNanos;
+    private final LongSupplier clock;
+    private long lastSweep;
+
+    @Autowired
+    public IdempotencyStore(@Value("${planning.idempotency.ttl-seconds:600}") long ttlSeconds,
+                            @Value("${planning.idempotency.max-keys:10000}") int maxKeys,
+                            @Value("${planning.idempotency.max-wait-ms:30000}") long maxWaitMillis) {
+        this(ttlSeconds, maxKeys, maxWaitMillis, System::nanoTime);
+    }
+
+    IdempotencyStore(long ttlSeconds, int maxKeys, LongSupplier clock) {
+        this(ttlSeconds, maxKeys, 30_000, clock);
+    }
+
+    IdempotencyStore(long ttlSeconds, int maxKeys, long maxWaitMillis, LongSupplier clock) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxKeys = maxKeys;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.clock = clock;
+        this.lastSweep = clock.getAsLong();
+    }
+
+    /**
+     * Thrown when a new key finds the store full of in-flight requests, or a retry gives up waiting for the
+     * original request; mapped to 503 so callers back off and retry with the same key.
+     */
+    public static class RetryLaterException extends RuntimeException {
+        public RetryLaterException(String message) {
+            super(message);
+        }
+    }
+
+    public <T> T execute(String key, String fingerprint, Supplier<T> action) {
+        return execute(key, fingerprint, PlanningBudget.unlimited(), action);
+    }
+
+    /**
+     * Runs {@code action} once per key within the TTL and returns its result to every caller using the key.
+     * {@code fingerprint} identifies the request body; reusing a key for a different request is rejected.
+     * A null or blank key bypasses the store.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, String fingerprint, PlanningBudget budget, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        long now = clock.getAsLong();
+        Entry fresh = new Entry(fingerprint);
+        Entry entry;
+        synchronized (entries) {
+            sweep(now);
+            entry = entries.get(key);
+            if (entry == null || entry.expired(now)) {
+                entries.remove(key);
+                makeRoom();
+                entries.put(key, fresh);
+                entry = fresh;
+            }
+        }
+
+        if (entry != fresh) {
+            if (!entry.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+            }
+            return (T) await(entry, budget);
+        }
+
+        try {
+            T value = action.get();
+            finish(key, fresh);
+            fresh.result.complete(value);
+            return value;
+        } catch (Throwable e) {
+            synchronized (entries) {
+                entries.remove(key, fresh);
+            }
+            fresh.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Object await(Entry entry, PlanningBudget budget) {
+        long wait = Math.min(budget.remainingNanos(), maxWaitNanos);
+        try {
+            return entry.result.get(wait, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new RetryLaterException("The original request with this Idempotency-Key is still running, retry later");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RetryLaterException("Interrupted while waiting for the original request, retry later");
+        }
+    }
+
+    /** Starts the entry's TTL and moves it behind the keys that finished before it. */
+    private void finish(String key, Entry entry) {
+        synchronized (entries) {
+            entry.expiresAt = clock.getAsLong() + ttlNanos;
+            if (entries.remove(key, entry)) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Evicts the oldest finished entries until a new key fits; in-flight entries are never evicted, as a
+     * retry must still find them.
+     */
+    private void makeRoom() {
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (entries.size() >= maxKeys && oldest.hasNext()) {
+            if (oldest.next().result.isDone()) {
+                oldest.remove();
+            }
+        }
+        if (entries.size() >= maxKeys) {
+            throw new RetryLaterException("Too many idempotent requests in flight, retry later");
+        }
+    }
+
+    private void sweep(long now) {
+        if (now - lastSweep < Math.min(ttlNanos, TimeUnit.SECONDS.toNanos(1))) {
+            return;
+        }
+        lastSweep = now;
+        entries.values().removeIf(e -> e.expired(now));
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        /** Set when the result completes; guarded by {@code entries}. */
+        long expiresAt;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        boolean expired(long now) {
+            return result.isDone() && expiresAt - now <= 0;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.cw1.service;
 
 import com.example.cw1.dto.Drone;
+import com.example.cw1.dto.ServicePoint;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
@@ -36,6 +37,21 @@ public class IlpDataService {
         }
     }
 
+    public ServicePoint[] getServicePoints() {
+        String url = baseUrl + "service-points";
+        try {
+            System.out.println(">>> Calling ILP /service-points: " + url);
+            ResponseEntity<ServicePoint[]> response =
+                    restTemplate.getForEntity(url, ServicePoint[].class);
+
+            ServicePoint[] body = response.getBody();
+            return body != null ? body : new ServicePoint[0];
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ServicePoint[0];
+        }
+    }
+
 
 
 }
@@ -9,6 +9,8 @@ import com.example.cw1.dto.MaintenancePlanRequest;
 import com.example.cw1.dto.MaintenancePlanResponse;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -29,14 +31,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class MaintenanceService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(MaintenanceService.class);
+
     private final IlpDataService ilpDataService;
     private final ObjectMapper mapper;
     private final Path storePath;
+    private final List<PlanListener> planListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
 
     public MaintenanceService(IlpDataService ilpDataService) {
         this.ilpDataService = ilpDataService;
@@ -64,6 +73,7 @@ public class MaintenanceService {
         Map<String, List<MaintenanceLog>> store = loadStore();
         store.computeIfAbsent(log.getDroneId(), k -> new ArrayList<>()).add(log);
         persist(store);
+        version.incrementAndGet();
 
         Map<String, Drone> index = indexDrones(ilpDataService.getDrones());
         MaintenancePlan plan = buildPlan(log.getDroneId(), store.get(log.getDroneId()), index.get(log.getDroneId()));
@@ -72,10 +82,47 @@ public class MaintenanceService {
         if ("HIGH".equalsIgnoreCase(plan.getRiskLevel())) {
             logHighRiskAlert(plan);
         }
-        
+
+        notifyPlanListeners(plan);
         return plan;
     }
 
+    /**
+     * Monotonic counter bumped whenever new telemetry is stored; derived caches compare it to detect staleness.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Registers a callback invoked with the refreshed plan whenever new telemetry changes a drone's health.
+     */
+    public void addPlanListener(Consumer<MaintenancePlan> listener) {
+        addPlanListener(String.valueOf(listener), listener);
+    }
+
+    /**
+     * As {@link #addPlanListener(Consumer)}, naming the listener in the log when it fails.
+     */
+    public void addPlanListener(String name, Consumer<MaintenancePlan> listener) {
+        if (listener != null) {
+            planListeners.add(new PlanListener(name, listener));
+        }
+    }
+
+    private void notifyPlanListeners(MaintenancePlan plan) {
+        for (PlanListener listener : planListeners) {
+            try {
+                listener.consumer().accept(plan);
+            } catch (RuntimeException e) {
+                LOG.error("Plan listener '{}' failed for drone {}", listener.name(), plan.getDroneId(), e);
+            }
+        }
+    }
+
+    private record PlanListener(String name, Consumer<MaintenancePlan> consumer) {
+    }
+
     private void logHighRiskAlert(MaintenancePlan plan) {
         String alertMessage = String.format(
             "[HIGH RISK ALERT] Drone %s: Risk Score %.1f/100, Hours Until Service: %.1f, Recommendation: %s",
@@ -94,6 +141,7 @@ public class MaintenanceService {
 
     public synchronized MaintenancePlanResponse plan(MaintenancePlanRequest request) {
         Map<String, List<MaintenanceLog>> store = loadStore();
+        Set<String> updated = new HashSet<>();
 
         if (request != null && request.getNewLogs() != null && !request.getNewLogs().isEmpty()) {
             for (MaintenanceLog log : request.getNewLogs()) {
@@ -102,11 +150,18 @@ public class MaintenanceService {
                 }
                 ensureTimestamp(log);
                 store.computeIfAbsent(log.getDroneId(), k -> new ArrayList<>()).add(log);
+                updated.add(log.getDroneId());
             }
             persist(store);
+            version.incrementAndGet();
         }
 
         Map<String, Drone> droneIndex = indexDrones(ilpDataService.getDrones());
+        if (!planListeners.isEmpty()) {
+            for (String droneId : updated) {
+                notifyPlanListeners(buildPlan(droneId, store.get(droneId), droneIndex.get(droneId)));
+            }
+        }
         List<String> targets = determineTargets(request, store.keySet(), droneIndex.keySet());
 
         List<MaintenancePlan> plans = new ArrayList<>();
@@ -148,6 +203,26 @@ public class MaintenanceService {
         return buildPlan(droneId, logs, droneIndex.get(droneId));
     }
 
+    /**
+     * Builds maintenance plans for several drones from a single read of the log store.
+     * When {@code fleet} is supplied it is used as the drone catalogue instead of calling ILP again.
+     */
+    public synchronized Map<String, MaintenancePlan> snapshots(Collection<String> droneIds, Drone[] fleet) {
+        Map<String, MaintenancePlan> plans = new HashMap<>();
+        if (droneIds == null || droneIds.isEmpty()) {
+            return plans;
+        }
+        Map<String, List<MaintenanceLog>> store = loadStore();
+        Map<String, Drone> droneIndex = indexDrones(fleet != null ? fleet : ilpDataService.getDrones());
+        for (String droneId : droneIds) {
+            if (droneId == null || droneId.isBlank() || plans.containsKey(droneId)) {
+                continue;
+            }
+            plans.put(droneId, buildPlan(droneId, store.get(droneId), droneIndex.get(droneId)));
+        }
+        return plans;
+    }
+
     private MaintenancePlan buildPlan(String droneId, List<MaintenanceLog> logs, Drone drone) {
         MaintenancePlan plan = new MaintenancePlan();
         plan.setDroneId(droneId);
@@ -0,0 +1,202 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.MedDispatchRec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory record of the routes of issued delivery plans, indexed by the drone flying them, so that a
+ * change in a drone's maintenance risk finds exactly the missions it affects. A route is identified by its
+ * dispatch ids: planning the same deliveries again replaces the earlier mission. The oldest missions are
+ * forgotten once {@code maxMissions} are held.
+ */
+public class MissionRegistry {
+
+    private final int maxMissions;
+    private final Map<List<Integer>, Mission> missions = new LinkedHashMap<>();
+    private final Map<String, Set<List<Integer>>> byDrone = new HashMap<>();
+    private final Map<Integer, List<Integer>> byDispatch = new HashMap<>();
+    private final AtomicLong plans = new AtomicLong();
+    private final AtomicLong reassigned = new AtomicLong();
+    private final AtomicLong unresolved = new AtomicLong();
+
+    public MissionRegistry(int maxMissions) {
+        this.maxMissions = maxMissions;
+    }
+
+    /**
+     * One route of an issued plan. {@code riskLevel} is the drone's level when the route was given to it,
+     * or null when the drone had no maintenance plan; {@code issuedDroneId} is the drone named in the plan.
+     */
+    public record Mission(List<Integer> key,
+                          long planId,
+                          List<MedDispatchRec> dispatches,
+                          int[] legMoves,
+                          int plannedMoves,
+                          String droneId,
+                          String riskLevel,
+                          String issuedDroneId) {
+
+        Mission withDrone(String droneId, String riskLevel) {
+            return new Mission(key, planId, dispatches, legMoves, plannedMoves, droneId, riskLevel, issuedDroneId);
+        }
+    }
+
+    /**
+     * Identifier shared by the routes of one issued plan.
+     */
+    public long nextPlanId() {
+        return plans.incrementAndGet();
+    }
+
+    public synchronized void register(long planId,
+                                      List<MedDispatchRec> dispatches,
+                                      int[] legMoves,
+                                      int plannedMoves,
+                                      String droneId,
+                                      String riskLevel) {
+        List<Integer> key = new ArrayList<>(dispatches.size());
+        for (MedDispatchRec rec : dispatches) {
+            key.add(rec.getId());
+        }
+        key = List.copyOf(key);
+        remove(missions.get(key));
+        put(new Mission(key, planId, List.copyOf(dispatches), legMoves, plannedMoves, droneId, riskLevel, droneId));
+        while (missions.size() > maxMissions) {
+            remove(missions.values().iterator().next());
+        }
+    }
+
+    /**
+     * Records a drone's new risk level and returns its missions that must move: those assigned while the
+     * drone was not HIGH risk, now that it is. Missions already given to a HIGH risk drone as the only
+     * option are left alone.
+     */
+    public synchronized List<Mission> riskChanged(String droneId, String riskLevel) {
+        Set<List<Integer>> keys = byDrone.get(droneId);
+        if (keys == null) {
+            return List.of();
+        }
+        List<Mission> affected = new ArrayList<>();
+        for (List<Integer> key : keys) {
+            Mission mission = missions.get(key);
+            if (Objects.equals(mission.riskLevel(), riskLevel)) {
+                continue;
+            }
+            if (isHigh(riskLevel) && !isHigh(mission.riskLevel())) {
+                affected.add(mission);
+            }
+            missions.put(key, mission.withDrone(droneId, riskLevel));
+        }
+        return affected;
+    }
+
+    /**
+     * Drone ids flying the routes of the given plan.
+     */
+    public synchronized Set<String> dronesOf(long planId) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (Mission mission : missions.values()) {
+            if (mission.planId() == planId) {
+                ids.add(mission.droneId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Moves the mission to {@code droneId}, or keeps it where it is and counts it as unresolved when no
+     * replacement was found (null). Ignored if the mission was replaced or moved in the meantime.
+     */
+    public synchronized void reassign(Mission mission, String droneId, String riskLevel) {
+        Mission current = missions.get(mission.key());
+        if (current == null || current.planId() != mission.planId()
+                || !Objects.equals(current.droneId(), mission.droneId())) {
+            return;
+        }
+        if (droneId == null) {
+            unresolved.incrementAndGet();
+            return;
+        }
+        remove(current);
+        put(current.withDrone(droneId, riskLevel));
+        reassigned.incrementAndGet();
+    }
+
+    /**
+     * The mission delivering the given dispatch, or null when none is tracked.
+     */
+    public synchronized Mission missionFor(int dispatchId) {
+        List<Integer> key = byDispatch.get(dispatchId);
+        return key == null ? null : missions.get(key);
+    }
+
+    public synchronized List<Mission> missionsFor(String droneId) {
+        Set<List<Integer>> keys = byDrone.get(droneId);
+        if (keys == null) {
+            return List.of();
+        }
+        List<Mission> result = new ArrayList<>(keys.size());
+        for (List<Integer> key : keys) {
+            result.add(missions.get(key));
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return missions.size();
+    }
+
+    /**
+     * Missions moved to another drone after their drone turned HIGH risk.
+     */
+    public long reassigned() {
+        return reassigned.get();
+    }
+
+    /**
+     * Missions left on a drone that turned HIGH risk because no other drone could fly them.
+     */
+    public long unresolved() {
+        return unresolved.get();
+    }
+
+    private void put(Mission mission) {
+        missions.put(mission.key(), mission);
+        for (Integer id : mission.key()) {
+            byDispatch.put(id, mission.key());
+        }
+        if (mission.droneId() != null) {
+            byDrone.computeIfAbsent(mission.droneId(), k -> new LinkedHashSet<>()).add(mission.key());
+        }
+    }
+
+    private void remove(Mission mission) {
+        if (mission == null) {
+            return;
+        }
+        missions.remove(mission.key());
+        for (Integer id : mission.key()) {
+            byDispatch.remove(id, mission.key());
+        }
+        Set<List<Integer>> keys = byDrone.get(mission.droneId());
+        if (keys != null) {
+            keys.remove(mission.key());
+            if (keys.isEmpty()) {
+                byDrone.remove(mission.droneId());
+            }
+        }
+    }
+
+    private static boolean isHigh(String riskLevel) {
+        return "HIGH".equalsIgnoreCase(riskLevel);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.Position;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Growable buffer of interleaved (lng, lat) doubles used while building flight paths.
+ * Paths are handed to DTOs as read-only {@link Slice} views, which Jackson writes straight from the
+ * buffer, so no {@link Position} is allocated per step on the planning or serialization path.
+ */
+public final class PathBuffer {
+
+    private double[] coords;
+    private int size;
+
+    public PathBuffer(int expectedPoints) {
+        this.coords = new double[Math.max(2, expectedPoints * 2)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double lng(int index) {
+        return coords[index * 2];
+    }
+
+    public double lat(int index) {
+        return coords[index * 2 + 1];
+    }
+
+    public void add(double lng, double lat) {
+        int offset = size * 2;
+        if (offset + 2 > coords.length) {
+            coords = Arrays.copyOf(coords, Math.max(offset + 2, coords.length * 2));
+        }
+        coords[offset] = lng;
+        coords[offset + 1] = lat;
+        size++;
+    }
+
+    /**
+     * Appends the straight line from one point to another in steps of at most {@code step} degrees,
+     * both ends included. A zero-length segment contributes the single start point. When
+     * {@code skipFirst} is set the start point is left out, for legs continuing from the current end.
+     */
+    public void appendSegment(double fromLng, double fromLat, double toLng, double toLat,
+                              double step, boolean skipFirst) {
+        double dx = toLng - fromLng;
+        double dy = toLat - fromLat;
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        if (distance == 0) {
+            if (!skipFirst) {
+                add(fromLng, fromLat);
+            }
+            return;
+        }
+
+        int steps = (int) Math.ceil(distance / step);
+        for (int i = skipFirst ? 1 : 0; i <= steps; i++) {
+            double t = (double) i / (double) steps;
+            add(fromLng + dx * t, fromLat + dy * t);
+        }
+    }
+
+    /**
+     * Read-only view of points {@code [from, to)}.
+     */
+    public List<Position> slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("slice [" + from + ", " + to + ") of " + size);
+        }
+        return new Slice(this, from, to);
+    }
+
+    @JsonSerialize(using = SliceSerializer.class)
+    public static final class Slice extends AbstractList<Position> implements RandomAccess {
+        private final PathBuffer buffer;
+        private final int from;
+        private final int to;
+
+        private Slice(PathBuffer buffer, int from, int to) {
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Position get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return new Position(buffer.lng(from + index), buffer.lat(from + index));
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        public double lng(int index) {
+            return buffer.lng(from + index);
+        }
+
+        public double lat(int index) {
+            return buffer.lat(from + index);
+        }
+    }
+
+    /**
+     * Writes a slice in exactly the shape Jackson uses for {@code List<Position>}.
+     */
+    public static final class SliceSerializer extends StdSerializer<Slice> {
+
+        public SliceSerializer() {
+            super(Slice.class);
+        }
+
+        @Override
+        public void serialize(Slice slice, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            int n = slice.size();
+            gen.writeStartArray(slice, n);
+            for (int i = 0; i < n; i++) {
+                gen.writeStartObject();
+                gen.writeNumberField("lng", slice.lng(i));
+                gen.writeNumberField("lat", slice.lat(i));
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.cw1.service;
+
+import java.util.Locale;
+
+/**
+ * Wire formats for delivery flight paths. {@link #JSON} is the original list of
+ * {@code {"lng":..,"lat":..}} objects; the others are opt-in compact forms.
+ */
+public enum PathEncoding {
+    JSON("json"),
+    POLYLINE("polyline"),
+    VARINT("varint"),
+    WAYPOINTS("waypoints");
+
+    private final String label;
+
+    PathEncoding(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Resolves the encoding from the {@code encoding} query parameter, falling back to a vendor media
+     * type in the Accept header such as {@code application/vnd.ilp.polyline+json}.
+     */
+    public static PathEncoding resolve(String parameter, String accept) {
+        if (parameter != null && !parameter.isBlank()) {
+            String wanted = parameter.trim().toLowerCase(Locale.ROOT);
+            for (PathEncoding encoding : values()) {
+                if (encoding.label.equals(wanted)) {
+                    return encoding;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported path encoding: " + parameter);
+        }
+        if (accept != null) {
+            String header = accept.toLowerCase(Locale.ROOT);
+            for (PathEncoding encoding : values()) {
+                if (encoding != JSON && header.contains("vnd.ilp." + encoding.label + "+json")) {
+                    return encoding;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.cw1.service;
+
+import java.util.Locale;
+
+/**
+ * Requested simplification of flight paths for map rendering. The tolerance is in degrees; a zoom level
+ * is converted to the size of one 256px web-map tile pixel at that zoom.
+ */
+public record PathSimplification(Algorithm algorithm, double tolerance) {
+
+    public enum Algorithm {
+        DOUGLAS_PEUCKER,
+        VISVALINGAM
+    }
+
+    /**
+     * Returns {@code null} when no simplification was requested.
+     */
+    public static PathSimplification resolve(String simplify, Double tolerance, Integer zoom) {
+        boolean requested = (simplify != null && !simplify.isBlank()) || tolerance != null || zoom != null;
+        if (!requested) {
+            return null;
+        }
+
+        Algorithm algorithm = Algorithm.DOUGLAS_PEUCKER;
+        if (simplify != null && !simplify.isBlank()) {
+            algorithm = switch (simplify.trim().toLowerCase(Locale.ROOT)) {
+                case "dp", "douglas-peucker" -> Algorithm.DOUGLAS_PEUCKER;
+                case "vw", "visvalingam" -> Algorithm.VISVALINGAM;
+                default -> throw new IllegalArgumentException("Unsupported simplification: " + simplify);
+            };
+        }
+
+        double resolved;
+        if (tolerance != null) {
+            if (tolerance < 0 || tolerance.isNaN()) {
+                throw new IllegalArgumentException("tolerance must be non-negative");
+            }
+            resolved = tolerance;
+        } else if (zoom != null) {
+            if (zoom < 0 || zoom > 24) {
+                throw new IllegalArgumentException("zoom must be between 0 and 24");
+            }
+            resolved = zoomTolerance(zoom);
+        } else {
+            resolved = DeliveryPlanningService.STEP;
+        }
+        return new PathSimplification(algorithm, resolved);
+    }
+
+    /**
+     * Width in degrees of one 256px tile pixel at {@code zoom}.
+     */
+    public static double zoomTolerance(int zoom) {
+        return 360.0 / (256.0 * Math.pow(2, zoom));
+    }
+
+    /**
+     * True when the tolerance is the default or exactly that of a zoom level from 0 to 24, so only a
+     * small fixed set of settings satisfies it.
+     */
+    public boolean onZoomLadder() {
+        if (tolerance == DeliveryPlanningService.STEP) {
+            return true;
+        }
+        if (!(tolerance > 0)) {
+            return false;
+        }
+        long zoom = Math.round(Math.log(360.0 / (256.0 * tolerance)) / Math.log(2));
+        return zoom >= 0 && zoom <= 24 && zoomTolerance((int) zoom) == tolerance;
+    }
+}
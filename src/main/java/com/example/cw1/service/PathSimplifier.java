@@ -0,0 +1,218 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.DeliveryFlightDto;
+import com.example.cw1.dto.DeliveryPathResponse;
+import com.example.cw1.dto.DronePathDto;
+import com.example.cw1.dto.Position;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+
+/**
+ * Reduces delivery flight paths to the vertices that matter at a given map tolerance.
+ * Simplified variants are cached per plan instance (weakly, so they disappear with the plan), which
+ * pays off once plans themselves are shared between requests. Only zoom-level tolerances are cached, at
+ * most {@link #MAX_VARIANTS_PER_PLAN} per plan, least recently used dropped first; a free-form tolerance
+ * is simplified on every request so clients cannot grow a cached plan without bound.
+ */
+@Component
+public class PathSimplifier {
+
+    static final int MAX_VARIANTS_PER_PLAN = 8;
+
+    private final Map<DeliveryPathResponse, Map<PathSimplification, DeliveryPathResponse>> cache =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    public DeliveryPathResponse simplify(DeliveryPathResponse response, PathSimplification simplification) {
+        if (response == null || simplification == null) {
+            return response;
+        }
+        if (!simplification.onZoomLadder()) {
+            return simplifyPlan(response, simplification);
+        }
+        Map<PathSimplification, DeliveryPathResponse> variants =
+                cache.computeIfAbsent(response, r -> Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<PathSimplification, DeliveryPathResponse> eldest) {
+                        return size() > MAX_VARIANTS_PER_PLAN;
+                    }
+                }));
+        return variants.computeIfAbsent(simplification, s -> simplifyPlan(response, s));
+    }
+
+    /**
+     * Number of simplified variants cached for {@code response}.
+     */
+    int cachedVariants(DeliveryPathResponse response) {
+        Map<PathSimplification, DeliveryPathResponse> variants = cache.get(response);
+        return variants == null ? 0 : variants.size();
+    }
+
+    private DeliveryPathResponse simplifyPlan(DeliveryPathResponse response, PathSimplification simplification) {
+        DeliveryPathResponse copy = new DeliveryPathResponse();
+        copy.setTotalCost(response.getTotalCost());
+        copy.setTotalMoves(response.getTotalMoves());
+        copy.setMaintenancePlan(response.getMaintenancePlan());
+        copy.setFailedConstraint(response.getFailedConstraint());
+        copy.setPlanStatus(response.getPlanStatus());
+        if (response.getDronePaths() == null) {
+            return copy;
+        }
+
+        List<DronePathDto> paths = new ArrayList<>(response.getDronePaths().size());
+        for (DronePathDto path : response.getDronePaths()) {
+            DronePathDto simplifiedPath = new DronePathDto();
+            simplifiedPath.setDroneId(path.getDroneId());
+            simplifiedPath.setServicePoint(path.getServicePoint());
+            if (path.getDeliveries() != null) {
+                List<DeliveryFlightDto> deliveries = new ArrayList<>(path.getDeliveries().size());
+                for (DeliveryFlightDto delivery : path.getDeliveries()) {
+                    DeliveryFlightDto simplified = new DeliveryFlightDto();
+                    simplified.setDeliveryId(delivery.getDeliveryId());
+                    simplified.setDeliveryPoint(delivery.getDeliveryPoint());
+                    if (delivery.getFlightPath() != null) {
+                        simplified.setFlightPath(simplify(delivery.getFlightPath(), simplification));
+                    }
+                    deliveries.add(simplified);
+                }
+                simplifiedPath.setDeliveries(deliveries);
+            }
+            paths.add(simplifiedPath);
+        }
+        copy.setDronePaths(paths);
+        return copy;
+    }
+
+    public static List<Position> simplify(List<Position> path, PathSimplification simplification) {
+        int n = path.size();
+        if (n <= 2) {
+            return new ArrayList<>(path);
+        }
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        if (path instanceof PathBuffer.Slice slice) {
+            for (int i = 0; i < n; i++) {
+                xs[i] = slice.lng(i);
+                ys[i] = slice.lat(i);
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                xs[i] = path.get(i).getLng();
+                ys[i] = path.get(i).getLat();
+            }
+        }
+
+        boolean[] keep = simplification.algorithm() == PathSimplification.Algorithm.VISVALINGAM
+                ? visvalingam(xs, ys, simplification.tolerance() * simplification.tolerance())
+                : douglasPeucker(xs, ys, simplification.tolerance());
+
+        List<Position> result = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                result.add(new Position(xs[i], ys[i]));
+            }
+        }
+        return result;
+    }
+
+    static boolean[] douglasPeucker(double[] xs, double[] ys, double tolerance) {
+        int n = xs.length;
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{0, n - 1});
+        while (!stack.isEmpty()) {
+            int[] range = stack.pop();
+            int first = range[0];
+            int last = range[1];
+            double maxDistance = -1;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                double d = segmentDistance(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+                if (d > maxDistance) {
+                    maxDistance = d;
+                    index = i;
+                }
+            }
+            if (index >= 0 && maxDistance > tolerance) {
+                keep[index] = true;
+                stack.push(new int[]{first, index});
+                stack.push(new int[]{index, last});
+            }
+        }
+        return keep;
+    }
+
+    /**
+     * Visvalingam-Whyatt: repeatedly drops the vertex forming the smallest triangle with its neighbours
+     * until every remaining triangle is at least {@code minArea}.
+     */
+    static boolean[] visvalingam(double[] xs, double[] ys, double minArea) {
+        int n = xs.length;
+        boolean[] keep = new boolean[n];
+        Arrays.fill(keep, true);
+        int[] prev = new int[n];
+        int[] next = new int[n];
+        int[] version = new int[n];
+        for (int i = 0; i < n; i++) {
+            prev[i] = i - 1;
+            next[i] = i + 1;
+        }
+
+        // entries are {area, index, version}; stale entries are skipped when polled
+        PriorityQueue<double[]> heap = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        for (int i = 1; i < n - 1; i++) {
+            heap.add(new double[]{area(xs, ys, i - 1, i, i + 1), i, 0});
+        }
+        while (!heap.isEmpty()) {
+            double[] top = heap.poll();
+            int i = (int) top[1];
+            if (!keep[i] || (int) top[2] != version[i]) {
+                continue;
+            }
+            if (top[0] >= minArea) {
+                break;
+            }
+            keep[i] = false;
+            int p = prev[i];
+            int q = next[i];
+            next[p] = q;
+            prev[q] = p;
+            if (p > 0) {
+                version[p]++;
+                heap.add(new double[]{area(xs, ys, prev[p], p, q), p, version[p]});
+            }
+            if (q < n - 1) {
+                version[q]++;
+                heap.add(new double[]{area(xs, ys, p, q, next[q]), q, version[q]});
+            }
+        }
+        return keep;
+    }
+
+    private static double area(double[] xs, double[] ys, int a, int b, int c) {
+        return Math.abs((xs[b] - xs[a]) * (ys[c] - ys[a]) - (xs[c] - xs[a]) * (ys[b] - ys[a])) / 2.0;
+    }
+
+    private static double segmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) {
+            return Math.hypot(px - ax, py - ay);
+        }
+        double t = Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+}
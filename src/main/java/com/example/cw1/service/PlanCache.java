@@ -0,0 +1,149 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.DeliveryPathResponse;
+import com.example.cw1.dto.MedDispatchRec;
+import com.example.cw1.dto.MedDispatchRequirements;
+import com.example.cw1.dto.Position;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of computed delivery plans. Entries are keyed by the canonical form of the dispatch
+ * list together with the fleet and maintenance versions they were computed against, so a version change
+ * simply stops older entries from being hit and they age out through the LRU order; no request pays for
+ * clearing the cache. Concurrent requests for the same key share one computation.
+ */
+public class PlanCache {
+
+    private final int maxEntries;
+    private final Map<Key, CompletableFuture<DeliveryPathResponse>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PlanCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<DeliveryPathResponse>> eldest) {
+                return size() > PlanCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached plan or computes it with {@code planner}. A caller with a bounded budget waits for
+     * an identical in-flight request only as long as its budget allows, then plans on its own. Plans that
+     * were truncated by their budget are handed to waiting callers with a budget but not kept.
+     */
+    public DeliveryPathResponse get(List<MedDispatchRec> dispatches,
+                                    long fleetVersion,
+                                    long maintenanceVersion,
+                                    PlanningBudget budget,
+                                    Function<PlanningBudget, DeliveryPathResponse> planner) {
+        Key key = new Key(canonicalKey(dispatches), fleetVersion, maintenanceVersion);
+        CompletableFuture<DeliveryPathResponse> pending;
+        boolean owner = false;
+        synchronized (entries) {
+            pending = entries.get(key);
+            if (pending == null) {
+                pending = new CompletableFuture<>();
+                entries.put(key, pending);
+                owner = true;
+            }
+        }
+
+        if (!owner) {
+            try {
+                DeliveryPathResponse response = budget.isBounded()
+                        ? pending.get(budget.remainingNanos(), TimeUnit.NANOSECONDS)
+                        : pending.join();
+                if (!budget.isBounded() && "truncated".equals(response.getPlanStatus())) {
+                    misses.incrementAndGet();
+                    return planner.apply(budget);
+                }
+                hits.incrementAndGet();
+                return response;
+            } catch (TimeoutException e) {
+                misses.incrementAndGet();
+                return planner.apply(budget);
+            } catch (CompletionException | ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for plan", e);
+            }
+        }
+
+        misses.incrementAndGet();
+        try {
+            DeliveryPathResponse response = planner.apply(budget);
+            pending.complete(response);
+            if ("truncated".equals(response.getPlanStatus())) {
+                synchronized (entries) {
+                    entries.remove(key, pending);
+                }
+            }
+            return response;
+        } catch (Throwable e) {
+            // errors too: a future left incomplete would hang every later request for this key
+            synchronized (entries) {
+                entries.remove(key, pending);
+            }
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Order-sensitive canonical form of a dispatch list: flight paths depend on dispatch order.
+     */
+    public static String canonicalKey(List<MedDispatchRec> dispatches) {
+        StringBuilder sb = new StringBuilder(dispatches.size() * 48);
+        for (MedDispatchRec rec : dispatches) {
+            sb.append(rec.getId()).append('|')
+                    .append(rec.getDate()).append('|')
+                    .append(rec.getTime()).append('|');
+            MedDispatchRequirements req = rec.getRequirements();
+            if (req == null) {
+                sb.append('-');
+            } else {
+                sb.append(req.getCapacity()).append('|')
+                        .append(req.isCooling() ? 'C' : 'c')
+                        .append(req.isHeating() ? 'H' : 'h').append('|')
+                        .append(req.getMaxCost());
+            }
+            Position delivery = rec.getDelivery();
+            if (delivery != null) {
+                sb.append('@').append(delivery.getLng()).append(',').append(delivery.getLat());
+            }
+            sb.append(';');
+        }
+        return sb.toString();
+    }
+
+    private record Key(String dispatches, long fleetVersion, long maintenanceVersion) {
+    }
+}
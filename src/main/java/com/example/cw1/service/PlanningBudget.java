@@ -0,0 +1,70 @@
+package com.example.cw1.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of one planning request. Planning phases poll {@link #expired()} between units of work,
+ * keep the best result found so far when it returns true, and record that via {@link #markTruncated()}.
+ * Every phase does at least one unit of work, so a truncated plan is still a valid plan.
+ */
+public final class PlanningBudget {
+
+    private static final PlanningBudget UNLIMITED = new PlanningBudget(false, 0L);
+
+    private final boolean bounded;
+    private final long deadlineNanos;
+    private volatile boolean truncated;
+
+    private PlanningBudget(boolean bounded, long deadlineNanos) {
+        this.bounded = bounded;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static PlanningBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    public static PlanningBudget ofMillis(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("deadlineMs must be positive");
+        }
+        return new PlanningBudget(true, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Budget for an optional {@code deadlineMs} request parameter; unlimited when absent.
+     */
+    public static PlanningBudget fromRequest(Long deadlineMs) {
+        return deadlineMs == null ? unlimited() : ofMillis(deadlineMs);
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean expired() {
+        return bounded && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public long remainingNanos() {
+        return bounded ? Math.max(0L, deadlineNanos - System.nanoTime()) : Long.MAX_VALUE;
+    }
+
+    public void markTruncated() {
+        if (bounded) {
+            truncated = true;
+        }
+    }
+
+    public boolean truncated() {
+        return truncated;
+    }
+
+    /**
+     * {@code "truncated"} when any phase stopped early, otherwise {@code "complete"}: every phase ran to the
+     * end. A complete plan is not necessarily optimal, as large batches are clustered and assigned greedily.
+     */
+    public String status() {
+        return truncated ? "truncated" : "complete";
+    }
+}
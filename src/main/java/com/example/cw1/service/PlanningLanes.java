@@ -0,0 +1,129 @@
+package com.example.cw1.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs planning work on one bounded executor per {@link DispatchPriority}, so bulk batches queue behind
+ * each other instead of taking the threads urgent requests need. A full lane rejects new work rather than
+ * queueing without bound. Time spent queued is recorded per lane as {@code planning.lane.queue.wait}.
+ * <p>
+ * The calling servlet thread waits for the result, so every running or queued task also holds one of
+ * Tomcat's request threads. The standard and bulk lanes together may therefore hold at most half of
+ * {@code server.tomcat.threads.max}; a larger configuration is refused at startup, since it would let a
+ * burst of non-urgent work take every request thread before urgent requests reach their lane.
+ */
+@Component
+public class PlanningLanes {
+
+    private final Map<DispatchPriority, Lane> lanes = new EnumMap<>(DispatchPriority.class);
+
+    public PlanningLanes(MeterRegistry registry,
+                         @Value("${planning.lanes.urgent.threads:2}") int urgentThreads,
+                         @Value("${planning.lanes.urgent.queue:32}") int urgentQueue,
+                         @Value("${planning.lanes.standard.threads:4}") int standardThreads,
+                         @Value("${planning.lanes.standard.queue:32}") int standardQueue,
+                         @Value("${planning.lanes.bulk.threads:2}") int bulkThreads,
+                         @Value("${planning.lanes.bulk.queue:16}") int bulkQueue,
+                         @Value("${server.tomcat.threads.max:200}") int servletThreads) {
+        int nonUrgent = standardThreads + Math.max(1, standardQueue) + bulkThreads + Math.max(1, bulkQueue);
+        if (nonUrgent > servletThreads / 2) {
+            throw new IllegalStateException("Standard and bulk lanes can hold " + nonUrgent
+                    + " request threads, more than half of the " + servletThreads + " servlet threads");
+        }
+        lanes.put(DispatchPriority.URGENT, new Lane(DispatchPriority.URGENT, urgentThreads, urgentQueue, registry));
+        lanes.put(DispatchPriority.STANDARD, new Lane(DispatchPriority.STANDARD, standardThreads, standardQueue, registry));
+        lanes.put(DispatchPriority.BULK, new Lane(DispatchPriority.BULK, bulkThreads, bulkQueue, registry));
+    }
+
+    /**
+     * Runs {@code task} on the lane's executor and waits for its result on the calling thread.
+     *
+     * @throws LaneSaturatedException when the lane's queue is full
+     */
+    public <T> T run(DispatchPriority priority, Supplier<T> task) {
+        Lane lane = lanes.get(priority);
+        long enqueued = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                lane.queueWait.record(System.nanoTime() - enqueued, TimeUnit.NANOSECONDS);
+                return task.get();
+            }, lane.executor);
+        } catch (RejectedExecutionException e) {
+            lane.rejected.increment();
+            throw new LaneSaturatedException(priority);
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    Timer queueWait(DispatchPriority priority) {
+        return lanes.get(priority).queueWait;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Lane lane : lanes.values()) {
+            lane.executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Thrown when a lane cannot accept more work; mapped to 503 so callers back off and retry.
+     */
+    public static class LaneSaturatedException extends RuntimeException {
+        public LaneSaturatedException(DispatchPriority priority) {
+            super("Planning lane '" + priority.label() + "' is at capacity, retry later");
+        }
+    }
+
+    private static final class Lane {
+        private final ThreadPoolExecutor executor;
+        private final Timer queueWait;
+        private final Counter rejected;
+
+        Lane(DispatchPriority priority, int threads, int queueCapacity, MeterRegistry registry) {
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                        Thread t = new Thread(r, "planning-" + priority.label() + "-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        if (priority == DispatchPriority.URGENT) {
+                            t.setPriority(Thread.MAX_PRIORITY);
+                        }
+                        return t;
+                    });
+            this.queueWait = Timer.builder("planning.lane.queue.wait")
+                    .tag("lane", priority.label())
+                    .description("Time planning requests spend queued before a lane thread picks them up")
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+            this.rejected = Counter.builder("planning.lane.rejected")
+                    .tag("lane", priority.label())
+                    .register(registry);
+            Gauge.builder("planning.lane.queue.size", executor, e -> e.getQueue().size())
+                    .tag("lane", priority.label())
+                    .register(registry);
+        }
+    }
+}
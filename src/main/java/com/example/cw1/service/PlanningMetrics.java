@@ -0,0 +1,58 @@
+package com.example.cw1.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the planning caches' hit rates and sizes, and the mission reassignment counts, to the
+ * actuator metrics endpoint.
+ */
+@Component
+public class PlanningMetrics implements MeterBinder {
+
+    private final DeliveryPlanningService deliveryPlanningService;
+
+    public PlanningMetrics(DeliveryPlanningService deliveryPlanningService) {
+        this.deliveryPlanningService = deliveryPlanningService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        PlanCache plans = deliveryPlanningService.planCache();
+        Gauge.builder("planning.plan-cache.entries", plans, PlanCache::size)
+                .register(registry);
+        FunctionCounter.builder("planning.plan-cache.requests", plans, PlanCache::hits)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("planning.plan-cache.requests", plans, PlanCache::misses)
+                .tag("result", "miss")
+                .register(registry);
+
+        Gauge.builder("planning.selection-cache.entries", deliveryPlanningService, s -> {
+                    DroneCapabilityIndex index = s.capabilityIndex();
+                    return index == null ? 0 : index.cachedRankings();
+                })
+                .register(registry);
+        DroneCapabilityIndex.RankingStats selection = deliveryPlanningService.rankingStats();
+        FunctionCounter.builder("planning.selection-cache.requests", selection, DroneCapabilityIndex.RankingStats::hits)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("planning.selection-cache.requests", selection, DroneCapabilityIndex.RankingStats::misses)
+                .tag("result", "miss")
+                .register(registry);
+
+        MissionRegistry missions = deliveryPlanningService.missions();
+        Gauge.builder("planning.missions.active", missions, MissionRegistry::size)
+                .description("Issued routes tracked for reassignment")
+                .register(registry);
+        FunctionCounter.builder("planning.missions.reassignments", missions, MissionRegistry::reassigned)
+                .tag("result", "reassigned")
+                .register(registry);
+        FunctionCounter.builder("planning.missions.reassignments", missions, MissionRegistry::unresolved)
+                .tag("result", "unresolved")
+                .register(registry);
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.Position;
+import com.example.cw1.dto.ServicePoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable 2-d tree over the service points (depots) drones launch from.
+ * Besides plain nearest-depot lookups it answers round-trip queries: the depots minimising
+ * {@code dist(depot, a) + dist(b, depot)}, i.e. the cost of flying out to {@code a} and home from {@code b}.
+ * Both are branch-and-bound searches that prune subtrees whose bounding box cannot beat the current best.
+ */
+public final class ServicePointIndex {
+
+    private final ServicePoint[] points;
+    private final double[] lng;
+    private final double[] lat;
+    /** Depot positions in tree order: the median of {@code [lo, hi)} is the node of that range. */
+    private final int[] tree;
+    private final long fingerprint;
+
+    private ServicePointIndex(List<ServicePoint> points) {
+        int n = points.size();
+        this.points = points.toArray(new ServicePoint[0]);
+        this.lng = new double[n];
+        this.lat = new double[n];
+        long h = 1125899906842597L;
+        for (int i = 0; i < n; i++) {
+            Position p = this.points[i].getLocation();
+            lng[i] = p.getLng();
+            lat[i] = p.getLat();
+            h = 31 * h + Objects.hashCode(this.points[i].getName());
+            h = 31 * h + Objects.hashCode(this.points[i].getId());
+            h = 31 * h + Double.doubleToLongBits(lng[i]);
+            h = 31 * h + Double.doubleToLongBits(lat[i]);
+        }
+        this.fingerprint = h;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        build(order, 0, n, 0);
+        this.tree = new int[n];
+        for (int i = 0; i < n; i++) {
+            tree[i] = order[i];
+        }
+    }
+
+    /**
+     * Indexes the given service points, skipping entries without a location. Fleet order is kept as the
+     * tie-break between equally good depots.
+     */
+    public static ServicePointIndex of(List<ServicePoint> servicePoints) {
+        List<ServicePoint> usable = new ArrayList<>();
+        if (servicePoints != null) {
+            for (ServicePoint sp : servicePoints) {
+                if (sp != null && sp.getLocation() != null) {
+                    usable.add(sp);
+                }
+            }
+        }
+        return new ServicePointIndex(usable);
+    }
+
+    /**
+     * Parses {@code name@lng,lat} entries separated by {@code ;}. The name and {@code @} are optional.
+     */
+    public static List<ServicePoint> parse(String spec) {
+        List<ServicePoint> result = new ArrayList<>();
+        if (spec == null || spec.isBlank()) {
+            return result;
+        }
+        for (String entry : spec.split(";")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int at = trimmed.indexOf('@');
+            String name = at < 0 ? null : trimmed.substring(0, at).trim();
+            String[] coords = trimmed.substring(at + 1).split(",");
+            if (coords.length != 2) {
+                throw new IllegalArgumentException("Invalid service point '" + trimmed + "', expected name@lng,lat");
+            }
+            try {
+                Position location = new Position(Double.parseDouble(coords[0].trim()), Double.parseDouble(coords[1].trim()));
+                result.add(new ServicePoint(name, result.size() + 1, location));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid service point '" + trimmed + "', expected name@lng,lat", e);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return points.length;
+    }
+
+    public boolean isEmpty() {
+        return points.length == 0;
+    }
+
+    public ServicePoint get(int index) {
+        return points[index];
+    }
+
+    /**
+     * Content hash of the indexed depots, used to key caches derived from depot geometry.
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Index of the depot nearest to the given point, or -1 when the index is empty.
+     */
+    public int nearest(double pLng, double pLat) {
+        return bestRoundTrip(pLng, pLat, pLng, pLat);
+    }
+
+    /**
+     * Index of the depot minimising the distance out to {@code a} plus the distance home from {@code b},
+     * or -1 when the index is empty.
+     */
+    public int bestRoundTrip(double aLng, double aLat, double bLng, double bLat) {
+        if (points.length == 0) {
+            return -1;
+        }
+        Search search = new Search(aLng, aLat, bLng, bLat);
+        search.best(0, points.length, 0,
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        return search.bestIndex;
+    }
+
+    /**
+     * Depot indices whose round-trip distance is within {@code slack} of the best one, best first.
+     * Callers that quantise distances into moves use the slack to re-rank the near ties exactly.
+     */
+    public int[] roundTripCandidates(double aLng, double aLat, double bLng, double bLat, double slack) {
+        int best = bestRoundTrip(aLng, aLat, bLng, bLat);
+        if (best < 0) {
+            return new int[0];
+        }
+        Search search = new Search(aLng, aLat, bLng, bLat);
+        double bound = search.cost(best) + slack;
+        List<Integer> hits = new ArrayList<>();
+        search.within(0, points.length, 0, bound,
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, hits);
+        hits.sort(Comparator.comparingDouble((Integer i) -> search.cost(i)).thenComparingInt(i -> i));
+        return hits.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void build(Integer[] order, int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        double[] key = depth % 2 == 0 ? lng : lat;
+        Arrays.sort(order, lo, hi, Comparator.comparingDouble((Integer i) -> key[i]).thenComparingInt(i -> i));
+        int mid = (lo + hi) >>> 1;
+        build(order, lo, mid, depth + 1);
+        build(order, mid + 1, hi, depth + 1);
+    }
+
+    private final class Search {
+        private final double aLng;
+        private final double aLat;
+        private final double bLng;
+        private final double bLat;
+        private int bestIndex = -1;
+        private double bestCost = Double.POSITIVE_INFINITY;
+
+        Search(double aLng, double aLat, double bLng, double bLat) {
+            this.aLng = aLng;
+            this.aLat = aLat;
+            this.bLng = bLng;
+            this.bLat = bLat;
+        }
+
+        double cost(int i) {
+            return Math.hypot(lng[i] - aLng, lat[i] - aLat) + Math.hypot(lng[i] - bLng, lat[i] - bLat);
+        }
+
+        /**
+         * Lower bound of {@link #cost} over the box: each endpoint's distance to the box, minimised separately.
+         */
+        double lowerBound(double minLng, double maxLng, double minLat, double maxLat) {
+            return boxDistance(aLng, aLat, minLng, maxLng, minLat, maxLat)
+                    + boxDistance(bLng, bLat, minLng, maxLng, minLat, maxLat);
+        }
+
+        void best(int lo, int hi, int depth, double minLng, double maxLng, double minLat, double maxLat) {
+            if (lo >= hi || lowerBound(minLng, maxLng, minLat, maxLat) > bestCost) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            int node = tree[mid];
+            double c = cost(node);
+            if (c < bestCost || (c == bestCost && node < bestIndex)) {
+                bestCost = c;
+                bestIndex = node;
+            }
+            boolean splitLng = depth % 2 == 0;
+            double split = splitLng ? lng[node] : lat[node];
+            double probe = splitLng ? (aLng + bLng) / 2 : (aLat + bLat) / 2;
+            boolean lowFirst = probe <= split;
+            for (int pass = 0; pass < 2; pass++) {
+                boolean low = (pass == 0) == lowFirst;
+                if (splitLng) {
+                    if (low) {
+                        best(lo, mid, depth + 1, minLng, split, minLat, maxLat);
+                    } else {
+                        best(mid + 1, hi, depth + 1, split, maxLng, minLat, maxLat);
+                    }
+                } else {
+                    if (low) {
+                        best(lo, mid, depth + 1, minLng, maxLng, minLat, split);
+                    } else {
+                        best(mid + 1, hi, depth + 1, minLng, maxLng, split, maxLat);
+                    }
+                }
+            }
+        }
+
+        void within(int lo, int hi, int depth, double bound,
+                    double minLng, double maxLng, double minLat, double maxLat, List<Integer> hits) {
+            if (lo >= hi || lowerBound(minLng, maxLng, minLat, maxLat) > bound) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            int node = tree[mid];
+            if (cost(node) <= bound) {
+                hits.add(node);
+            }
+            if (depth % 2 == 0) {
+                within(lo, mid, depth + 1, bound, minLng, lng[node], minLat, maxLat, hits);
+                within(mid + 1, hi, depth + 1, bound, lng[node], maxLng, minLat, maxLat, hits);
+            } else {
+                within(lo, mid, depth + 1, bound, minLng, maxLng, minLat, lat[node], hits);
+                within(mid + 1, hi, depth + 1, bound, minLng, maxLng, lat[node], maxLat, hits);
+            }
+        }
+    }
+
+    private static double boxDistance(double pLng, double pLat,
+                                      double minLng, double maxLng, double minLat, double maxLat) {
+        double dx = pLng < minLng ? minLng - pLng : (pLng > maxLng ? pLng - maxLng : 0);
+        double dy = pLat < minLat ? minLat - pLat : (pLat > maxLat ? pLat - maxLat : 0);
+        return Math.hypot(dx, dy);
+    }
+}
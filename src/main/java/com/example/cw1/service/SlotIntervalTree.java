@@ -0,0 +1,144 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.Drone;
+import com.example.cw1.dto.DroneWeeklyAvailability;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Static interval tree over the weekly availability slots of one fleet listing. Slots are placed on a
+ * single week timeline in nanoseconds from Monday 00:00 and kept sorted by start; the implicit tree over
+ * that array (node = middle of its range) records the latest end below each node, so an overlap query
+ * skips every subtree that ends before the query starts or begins after it ends.
+ * <p>
+ * Drones without any slot are available all week and are not stored in the tree; see
+ * {@link #isUnrestricted(int)}. Other slots are kept when {@link DroneWeeklyAvailability#offersTime()},
+ * the rule the per-dispatch check applies too, and stored half-open to the nanosecond like
+ * {@link DroneWeeklyAvailability#matches(java.time.DayOfWeek, long)}: a drone is free at time {@code t}
+ * exactly when {@code overlapping(t, t + 1, ...)} visits one of its slots. Overnight slots (ending before
+ * they start) offer no time in either.
+ */
+public final class SlotIntervalTree {
+
+    public static final long NANOS_PER_DAY = 86_400_000_000_000L;
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(int drone, long start, long end);
+    }
+
+    private final long version;
+    private final boolean[] unrestricted;
+    private final long[] start;
+    private final long[] end;
+    private final int[] drone;
+    private final long[] maxEnd;
+
+    private SlotIntervalTree(long version, boolean[] unrestricted, long[] start, long[] end, int[] drone) {
+        this.version = version;
+        this.unrestricted = unrestricted;
+        this.start = start;
+        this.end = end;
+        this.drone = drone;
+        this.maxEnd = new long[start.length];
+        fillMaxEnd(0, start.length);
+    }
+
+    public static SlotIntervalTree build(Drone[] drones, long version) {
+        int n = drones == null ? 0 : drones.length;
+        boolean[] unrestricted = new boolean[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            List<DroneWeeklyAvailability> slots = drones[i] == null ? null : drones[i].getWeeklyAvailabilities();
+            if (drones[i] != null && (slots == null || slots.isEmpty())) {
+                unrestricted[i] = true;
+            } else if (slots != null) {
+                count += slots.size();
+            }
+        }
+
+        long[][] intervals = new long[count][];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            if (unrestricted[i] || drones[i] == null || drones[i].getWeeklyAvailabilities() == null) {
+                continue;
+            }
+            for (DroneWeeklyAvailability slot : drones[i].getWeeklyAvailabilities()) {
+                if (slot == null || !slot.offersTime()) {
+                    continue;
+                }
+                long base = (slot.getDay().getValue() - 1) * NANOS_PER_DAY;
+                intervals[k++] = new long[]{base + slot.fromNanoOfDay(), base + slot.toNanoOfDay(), i};
+            }
+        }
+        long[][] usable = Arrays.copyOf(intervals, k);
+        Arrays.sort(usable, (a, b) -> {
+            int cmp = Long.compare(a[0], b[0]);
+            return cmp != 0 ? cmp : Long.compare(a[2], b[2]);
+        });
+
+        long[] start = new long[k];
+        long[] end = new long[k];
+        int[] drone = new int[k];
+        for (int j = 0; j < k; j++) {
+            start[j] = usable[j][0];
+            end[j] = usable[j][1];
+            drone[j] = (int) usable[j][2];
+        }
+        return new SlotIntervalTree(version, unrestricted, start, end, drone);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int fleetSize() {
+        return unrestricted.length;
+    }
+
+    public int size() {
+        return start.length;
+    }
+
+    public boolean isUnrestricted(int drone) {
+        return unrestricted[drone];
+    }
+
+    /**
+     * Visits every slot overlapping the week-timeline range {@code [from, to)}, in order of slot start.
+     */
+    public void overlapping(long from, long to, Visitor visitor) {
+        if (from < to) {
+            overlapping(0, start.length, from, to, visitor);
+        }
+    }
+
+    private void overlapping(int lo, int hi, long from, long to, Visitor visitor) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] <= from) {
+            return;
+        }
+        overlapping(lo, mid, from, to, visitor);
+        if (start[mid] >= to) {
+            return;
+        }
+        if (end[mid] > from) {
+            visitor.visit(drone[mid], start[mid], end[mid]);
+        }
+        overlapping(mid + 1, hi, from, to, visitor);
+    }
+
+    private long fillMaxEnd(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(end[mid], Math.max(fillMaxEnd(lo, mid), fillMaxEnd(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+}
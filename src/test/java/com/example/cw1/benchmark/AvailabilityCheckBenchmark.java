@@ -0,0 +1,143 @@
+package com.example.cw1.benchmark;
+
+import com.example.cw1.dto.DroneWeeklyAvailability;
+import com.example.cw1.dto.MedDispatchRec;
+import com.example.cw1.service.FleetAvailability;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the slot-by-slot availability check of a dispatch batch against a fleet when the dates and
+ * times are kept as strings and parsed on every comparison, against the epoch-day / nano-of-day fields
+ * the DTOs now hold. Run {@link #main} (or {@code org.openjdk.jmh.Main AvailabilityCheckBenchmark -prof gc}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityCheckBenchmark {
+
+    private static final int SLOTS_PER_DRONE = 7;
+
+    @Param({"10", "100"})
+    public int drones;
+
+    @Param({"5", "50"})
+    public int dispatches;
+
+    private String[][] slotFrom;
+    private String[][] slotTo;
+    private DayOfWeek[][] slotDay;
+    private String[] dispatchDate;
+    private String[] dispatchTime;
+
+    private DroneWeeklyAvailability[][] slots;
+    private MedDispatchRec[] records;
+
+    @Setup
+    public void setUp() {
+        slotFrom = new String[drones][SLOTS_PER_DRONE];
+        slotTo = new String[drones][SLOTS_PER_DRONE];
+        slotDay = new DayOfWeek[drones][SLOTS_PER_DRONE];
+        slots = new DroneWeeklyAvailability[drones][SLOTS_PER_DRONE];
+        for (int d = 0; d < drones; d++) {
+            for (int s = 0; s < SLOTS_PER_DRONE; s++) {
+                slotDay[d][s] = DayOfWeek.of(s + 1);
+                slotFrom[d][s] = String.format("%02d:00", 6 + d % 4);
+                slotTo[d][s] = String.format("%02d:30", 14 + d % 6);
+                DroneWeeklyAvailability slot = new DroneWeeklyAvailability();
+                slot.setDay(slotDay[d][s]);
+                slot.setFrom(slotFrom[d][s]);
+                slot.setTo(slotTo[d][s]);
+                slots[d][s] = slot;
+            }
+        }
+        dispatchDate = new String[dispatches];
+        dispatchTime = new String[dispatches];
+        records = new MedDispatchRec[dispatches];
+        LocalDate monday = LocalDate.of(2026, 1, 12);
+        for (int i = 0; i < dispatches; i++) {
+            dispatchDate[i] = monday.plusDays(i % 7).toString();
+            dispatchTime[i] = String.format("%02d:%02d", 8 + i % 10, (i * 7) % 60);
+            MedDispatchRec rec = new MedDispatchRec();
+            rec.setId(i);
+            rec.setDate(dispatchDate[i]);
+            rec.setTime(dispatchTime[i]);
+            records[i] = rec;
+        }
+    }
+
+    @Benchmark
+    public int reparsedStrings() {
+        int available = 0;
+        for (int d = 0; d < drones; d++) {
+            boolean all = true;
+            for (int i = 0; i < dispatches && all; i++) {
+                LocalDate date = LocalDate.parse(dispatchDate[i]);
+                LocalTime time = LocalTime.parse(dispatchTime[i]);
+                boolean any = false;
+                for (int s = 0; s < SLOTS_PER_DRONE && !any; s++) {
+                    if (slotDay[d][s] == date.getDayOfWeek()) {
+                        LocalTime from = LocalTime.parse(slotFrom[d][s]);
+                        LocalTime to = LocalTime.parse(slotTo[d][s]);
+                        any = !time.isBefore(from) && time.isBefore(to);
+                    }
+                }
+                all = any;
+            }
+            if (all) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    @Benchmark
+    public int primitiveFields() {
+        int available = 0;
+        for (int d = 0; d < drones; d++) {
+            boolean all = true;
+            for (int i = 0; i < dispatches && all; i++) {
+                MedDispatchRec rec = records[i];
+                DayOfWeek day = DayOfWeek.of(FleetAvailability.dayIndex(rec.epochDay()) + 1);
+                long time = rec.nanoOfDay();
+                boolean any = false;
+                for (int s = 0; s < SLOTS_PER_DRONE && !any; s++) {
+                    any = slots[d][s].matches(day, time);
+                }
+                all = any;
+            }
+            if (all) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AvailabilityCheckBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.cw1.benchmark;
+
+import com.example.cw1.dto.Drone;
+import com.example.cw1.dto.DroneCapability;
+import com.example.cw1.dto.DroneWeeklyAvailability;
+import com.example.cw1.dto.MedDispatchRec;
+import com.example.cw1.dto.MedDispatchRequirements;
+import com.example.cw1.service.DroneAvailabilityService;
+import com.example.cw1.service.IlpDataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential against fork-join evaluation in {@link DroneAvailabilityService#findAvailableDrones}, used to
+ * pick {@code planning.availability.parallel-threshold}. Dispatch times carry seconds so every drone takes
+ * the slot-by-slot check rather than the inverted index, and every invocation shifts them by a few
+ * nanoseconds so no signature result is reused from the cache. Compare the two {@code threshold} values
+ * for each fleet size; the fleet size where forking starts to win is the threshold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityParallelBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int drones;
+
+    @Param({"1", "10", "100"})
+    public int dispatches;
+
+    /** 0 always forks, {@link Long#MAX_VALUE} never does. */
+    @Param({"0", "9223372036854775807"})
+    public long threshold;
+
+    private final DroneAvailabilityService service = new DroneAvailabilityService();
+    private List<MedDispatchRec> batch;
+    private int invocation;
+
+    @Setup
+    public void setUp() {
+        Drone[] fleet = new Drone[drones];
+        for (int d = 0; d < drones; d++) {
+            DroneCapability capability = new DroneCapability();
+            capability.setCapacity(5 + d % 10);
+            capability.setCooling(d % 2 == 0);
+            List<DroneWeeklyAvailability> slots = new ArrayList<>();
+            for (DayOfWeek day : DayOfWeek.values()) {
+                DroneWeeklyAvailability slot = new DroneWeeklyAvailability();
+                slot.setDay(day);
+                slot.setFrom(String.format("%02d:00", 6 + d % 4));
+                slot.setTo(String.format("%02d:30", 16 + d % 6));
+                slots.add(slot);
+            }
+            Drone drone = new Drone();
+            drone.setId("D" + d);
+            drone.setCapability(capability);
+            drone.setWeeklyAvailabilities(slots);
+            fleet[d] = drone;
+        }
+        IlpDataService ilp = new IlpDataService() {
+            @Override
+            public Drone[] getDrones() {
+                return fleet;
+            }
+        };
+        ReflectionTestUtils.setField(service, "ilpDataService", ilp);
+        ReflectionTestUtils.setField(service, "parallelThreshold", threshold);
+    }
+
+    @Setup(Level.Invocation)
+    public void freshBatch() {
+        invocation++;
+        batch = new ArrayList<>();
+        LocalDate monday = LocalDate.of(2026, 1, 12);
+        for (int i = 0; i < dispatches; i++) {
+            MedDispatchRequirements requirements = new MedDispatchRequirements();
+            requirements.setCapacity(4);
+            MedDispatchRec rec = new MedDispatchRec();
+            rec.setId(i);
+            rec.setDate(monday.plusDays(i % 5).toString());
+            rec.setTime(String.format("%02d:%02d:30.%09d", 10 + i % 5, i % 60, invocation));
+            rec.setRequirements(requirements);
+            batch.add(rec);
+        }
+    }
+
+    @Benchmark
+    public List<String> findAvailableDrones() {
+        return service.findAvailableDrones(batch);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AvailabilityParallelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.cw1.benchmark;
+
+import com.example.cw1.dto.Position;
+import com.example.cw1.service.PathBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building (and serializing) a delivery plan with one {@link Position} per step against the
+ * primitive {@link PathBuffer}. Run {@link #main} (or {@code org.openjdk.jmh.Main PathBuildingBenchmark -prof gc})
+ * and compare the {@code gc.alloc.rate.norm} column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBuildingBenchmark {
+
+    private static final double LNG = -3.186874;
+    private static final double LAT = 55.944494;
+    private static final double SPACING = 0.0003;
+    private static final double STEP = 0.00015;
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"5", "50"})
+    public int deliveries;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Benchmark
+    public List<List<Position>> positionLists() {
+        List<List<Position>> flights = new ArrayList<>();
+        double fromLng = LNG;
+        double fromLat = LAT;
+        for (int i = 0; i < deliveries; i++) {
+            double toLng = LNG + SPACING * (i + 1);
+            double toLat = LAT + SPACING * (i + 1);
+            List<Position> segment = segment(fromLng, fromLat, toLng, toLat);
+            segment.add(new Position(toLng, toLat));
+            if (i == deliveries - 1) {
+                List<Position> back = segment(toLng, toLat, LNG, LAT);
+                back.remove(0);
+                segment.addAll(back);
+            }
+            flights.add(segment);
+            fromLng = toLng;
+            fromLat = toLat;
+        }
+        return flights;
+    }
+
+    @Benchmark
+    public List<List<Position>> pathBuffer() {
+        PathBuffer buffer = new PathBuffer(deliveries * 8);
+        List<List<Position>> flights = new ArrayList<>();
+        double fromLng = LNG;
+        double fromLat = LAT;
+        for (int i = 0; i < deliveries; i++) {
+            double toLng = LNG + SPACING * (i + 1);
+            double toLat = LAT + SPACING * (i + 1);
+            int start = buffer.size();
+            buffer.appendSegment(fromLng, fromLat, toLng, toLat, STEP, false);
+            buffer.add(toLng, toLat);
+            if (i == deliveries - 1) {
+                buffer.appendSegment(toLng, toLat, LNG, LAT, STEP, true);
+            }
+            flights.add(buffer.slice(start, buffer.size()));
+            fromLng = toLng;
+            fromLat = toLat;
+        }
+        return flights;
+    }
+
+    @Benchmark
+    public void positionListsSerialized() throws IOException {
+        mapper.writeValue(DISCARD, positionLists());
+    }
+
+    @Benchmark
+    public void pathBufferSerialized() throws IOException {
+        mapper.writeValue(DISCARD, pathBuffer());
+    }
+
+    private static List<Position> segment(double fromLng, double fromLat, double toLng, double toLat) {
+        List<Position> result = new ArrayList<>();
+        double dx = toLng - fromLng;
+        double dy = toLat - fromLat;
+        int steps = (int) Math.ceil(Math.sqrt(dx * dx + dy * dy) / STEP);
+        for (int i = 0; i <= steps; i++) {
+            double t = (double) i / (double) steps;
+            result.add(new Position(fromLng + dx * t, fromLat + dy * t));
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PathBuildingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -409,7 +409,162 @@ class ApiControllerTest {
         mockMvc.perform(post("/api/v1/calcDeliveryPathAsGeoJson")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.type").value("FeatureCollection"))
+                .andExpect(jsonPath("$.features").isArray());
+    }
+
+    @Test
+    @DisplayName("POST /calcDeliveryPath rejects an Idempotency-Key reused with another body")
+    void postCalcDeliveryPathWithReusedIdempotencyKey() throws Exception {
+        mockMvc.perform(post("/api/v1/calcDeliveryPath")
+                        .header("Idempotency-Key", "api-test-reused-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/v1/calcDeliveryPath")
+                        .header("Idempotency-Key", "api-test-reused-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\": 7}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /queryAvailableDrones rejects a malformed dispatch time while reading the body")
+    void postQueryAvailableDronesWithMalformedTime() throws Exception {
+        mockMvc.perform(post("/api/v1/queryAvailableDrones")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\": 1, \"date\": \"2026-01-12\", \"time\": \"10am\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("10am")));
+    }
+
+    @Test
+    @DisplayName("POST /availabilityCalendar returns one window per day")
+    void postAvailabilityCalendar() throws Exception {
+        mockMvc.perform(post("/api/v1/availabilityCalendar")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startDate\": \"2026-01-12\", \"days\": 3, \"from\": \"09:00\", \"to\": \"13:00\","
+                                + " \"requirements\": {\"cooling\": true}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windows.length()").value(3))
+                .andExpect(jsonPath("$.windows[2].date").value("2026-01-14"))
+                .andExpect(jsonPath("$.drones").isArray());
+
+        mockMvc.perform(post("/api/v1/availabilityCalendar")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startDate\": \"2026-01-12\", \"from\": \"13:00\", \"to\": \"09:00\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /calcDaySchedule returns a consolidated schedule")
+    void postCalcDaySchedule() throws Exception {
+        mockMvc.perform(post("/api/v1/calcDaySchedule")
+                        .param("windowMinutes", "30")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\": 1, \"date\": \"2026-01-12\", \"time\": \"10:00\","
+                                + " \"requirements\": {\"capacity\": 1.0}}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalDispatches").value(1))
+                .andExpect(jsonPath("$.schedule").isArray())
+                .andExpect(jsonPath("$.utilization").isArray());
+
+        mockMvc.perform(post("/api/v1/calcDaySchedule")
+                        .param("windowMinutes", "0")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /missions/{dispatchId} returns 404 for a dispatch in no issued plan")
+    void getMissionForUnknownDispatch() throws Exception {
+        mockMvc.perform(get("/api/v1/missions/987654321"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Planning plan cache metrics are published")
+    void planCacheMetricsArePublished() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/planning.plan-cache.entries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(greaterThanOrEqualTo(0.0)));
+    }
+
+    @Test
+    @DisplayName("POST /calcDeliveryQuote rejects a non-positive deadline")
+    void postCalcDeliveryQuoteWithInvalidDeadline() throws Exception {
+        mockMvc.perform(post("/api/v1/calcDeliveryQuote")
+                        .param("deadlineMs", "0")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /calcDeliveryPath plans urgent requests and rejects unknown priorities")
+    void postCalcDeliveryPathWithPriorityHeader() throws Exception {
+        mockMvc.perform(post("/api/v1/calcDeliveryPath")
+                        .header("X-Dispatch-Priority", "urgent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
                 .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/v1/calcDeliveryPath")
+                        .header("X-Dispatch-Priority", "asap")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /calcDeliveryPath rejects unknown path encodings")
+    void postCalcDeliveryPathWithUnknownEncoding() throws Exception {
+        mockMvc.perform(post("/api/v1/calcDeliveryPath")
+                        .param("encoding", "gzip")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /calcDeliveryPath honours the polyline Accept media type")
+    void postCalcDeliveryPathWithPolylineAccept() throws Exception {
+        mockMvc.perform(post("/api/v1/calcDeliveryPath")
+                        .accept("application/vnd.ilp.polyline+json")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dronePaths").isArray());
+    }
+
+    @Test
+    @DisplayName("POST /calcDeliveryQuote returns totals without a flight path")
+    void postCalcDeliveryQuote() throws Exception {
+        String requestJson = """
+            [
+                {
+                    "id": 1,
+                    "date": "2026-01-12",
+                    "time": "10:00",
+                    "requirements": {
+                        "capacity": 5.0,
+                        "cooling": false,
+                        "heating": false
+                    }
+                }
+            ]
+            """;
+
+        mockMvc.perform(post("/api/v1/calcDeliveryQuote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feasible").isBoolean())
+                .andExpect(jsonPath("$.totalMoves").isNumber())
+                .andExpect(jsonPath("$.flightPath").doesNotExist());
     }
 
     // ==================== Available Drones Tests ====================
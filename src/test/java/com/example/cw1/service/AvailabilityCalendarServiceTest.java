@@ -0,0 +1,123 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AvailabilityCalendarServiceTest {
+
+    @Mock
+    private IlpDataService ilpDataService;
+
+    @InjectMocks
+    private AvailabilityCalendarService availabilityCalendarService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void reportsFullWindowsAndPartialFreeTimePerDrone() {
+        Drone mondays = drone("D1", true,
+                slot(DayOfWeek.MONDAY, "08:00", "11:00"),
+                slot(DayOfWeek.MONDAY, "11:00", "14:00"));
+        Drone split = drone("D2", true,
+                slot(DayOfWeek.MONDAY, "09:30", "10:00"),
+                slot(DayOfWeek.TUESDAY, "12:00", "18:00"));
+        Drone always = drone("D3", true);
+        Drone warm = drone("D4", false);
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{mondays, split, always, warm});
+
+        AvailabilityCalendarResponse response = availabilityCalendarService.calendar(
+                request("2026-01-12", 3, "09:00", "13:00", true));
+
+        assertEquals(3, response.getWindows().size());
+        CalendarWindow monday = response.getWindows().get(0);
+        assertEquals("2026-01-12", monday.getDate());
+        assertEquals(List.of("D1", "D3"), monday.getDroneIds());
+        assertEquals(List.of("D3"), response.getWindows().get(1).getDroneIds());
+        assertEquals(List.of("D3"), response.getWindows().get(2).getDroneIds());
+
+        assertEquals(List.of("D1", "D2", "D3"),
+                response.getDrones().stream().map(DroneCalendar::getDroneId).toList());
+        List<CalendarWindow> d2 = response.getDrones().get(1).getFreeWindows();
+        assertEquals(2, d2.size());
+        assertEquals("09:30", d2.get(0).getFrom());
+        assertEquals("10:00", d2.get(0).getTo());
+        assertEquals("2026-01-13", d2.get(1).getDate());
+        assertEquals("12:00", d2.get(1).getFrom());
+        assertEquals("13:00", d2.get(1).getTo());
+        assertNull(d2.get(0).getDroneIds());
+        assertEquals(3, response.getDrones().get(2).getFreeWindows().size());
+    }
+
+    @Test
+    void windowsRepeatWeekly() {
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{
+                drone("D1", true, slot(DayOfWeek.MONDAY, "09:00", "13:00"))});
+
+        AvailabilityCalendarResponse response = availabilityCalendarService.calendar(
+                request("2026-01-12", 14, "09:00", "13:00", false));
+
+        List<String> dates = new ArrayList<>();
+        for (CalendarWindow window : response.getWindows()) {
+            if (!window.getDroneIds().isEmpty()) {
+                dates.add(window.getDate());
+            }
+        }
+        assertEquals(List.of("2026-01-12", "2026-01-19"), dates);
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThrows(IllegalArgumentException.class,
+                () -> availabilityCalendarService.calendar(request("2026-01-12", 0, "09:00", "13:00", false)));
+        assertThrows(IllegalArgumentException.class,
+                () -> availabilityCalendarService.calendar(request("2026-01-12", 3, "13:00", "09:00", false)));
+        assertThrows(IllegalArgumentException.class,
+                () -> availabilityCalendarService.calendar(request("2026-01-12", 3, null, "09:00", false)));
+    }
+
+    private static AvailabilityCalendarRequest request(String start, int days, String from, String to, boolean cooling) {
+        AvailabilityCalendarRequest request = new AvailabilityCalendarRequest();
+        request.setStartDate(start);
+        request.setDays(days);
+        request.setFrom(from);
+        request.setTo(to);
+        MedDispatchRequirements requirements = new MedDispatchRequirements();
+        requirements.setCapacity(1);
+        requirements.setCooling(cooling);
+        request.setRequirements(requirements);
+        return request;
+    }
+
+    private static Drone drone(String id, boolean cooling, DroneWeeklyAvailability... slots) {
+        DroneCapability capability = new DroneCapability();
+        capability.setCapacity(5);
+        capability.setCooling(cooling);
+        Drone drone = new Drone();
+        drone.setId(id);
+        drone.setCapability(capability);
+        drone.setWeeklyAvailabilities(List.of(slots));
+        return drone;
+    }
+
+    private static DroneWeeklyAvailability slot(DayOfWeek day, String from, String to) {
+        DroneWeeklyAvailability slot = new DroneWeeklyAvailability();
+        slot.setDay(day);
+        slot.setFrom(from);
+        slot.setTo(to);
+        return slot;
+    }
+}
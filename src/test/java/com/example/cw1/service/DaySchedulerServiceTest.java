@@ -0,0 +1,169 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DaySchedulerServiceTest {
+
+    private static final double DEPOT_LNG = -3.186874;
+    private static final double DEPOT_LAT = 55.944494;
+
+    private IlpDataService ilpDataService;
+    private MaintenanceService maintenanceService;
+    private DaySchedulerService daySchedulerService;
+
+    @BeforeEach
+    void setUp() {
+        ilpDataService = mock(IlpDataService.class);
+        maintenanceService = mock(MaintenanceService.class);
+        DroneAvailabilityService availability = new DroneAvailabilityService();
+        ReflectionTestUtils.setField(availability, "ilpDataService", ilpDataService);
+        DeliveryPlanningService planner = new DeliveryPlanningService();
+        ReflectionTestUtils.setField(planner, "ilpDataService", ilpDataService);
+        ReflectionTestUtils.setField(planner, "maintenanceService", maintenanceService);
+        daySchedulerService = new DaySchedulerService();
+        ReflectionTestUtils.setField(daySchedulerService, "ilpDataService", ilpDataService);
+        ReflectionTestUtils.setField(daySchedulerService, "droneAvailabilityService", availability);
+        ReflectionTestUtils.setField(daySchedulerService, "deliveryPlanningService", planner);
+        ReflectionTestUtils.setField(daySchedulerService, "maintenanceService", maintenanceService);
+    }
+
+    @Test
+    void packsEachWindowOntoAvailableDrones() {
+        Drone morning = drone("D1", 6, false, slot(DayOfWeek.MONDAY, "08:00", "10:00"));
+        Drone allDay = drone("D2", 10, false, slot(DayOfWeek.MONDAY, "08:00", "18:00"));
+        Drone cold = drone("D3", 4, true, slot(DayOfWeek.MONDAY, "08:00", "18:00"));
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{morning, allDay, cold});
+
+        List<MedDispatchRec> day = List.of(
+                dispatch(1, "09:10", 4, false),
+                dispatch(2, "09:40", 2, false),
+                dispatch(3, "09:50", 3, true),
+                dispatch(4, "14:15", 7, false),
+                dispatch(5, "14:30", 5, false),
+                dispatch(6, "20:00", 1, false));
+
+        DayScheduleResponse schedule = daySchedulerService.schedule(day, 60);
+
+        assertEquals(6, schedule.getTotalDispatches());
+        assertEquals(List.of(5, 6), schedule.getUnassignedDispatchIds());
+        assertEquals(4, schedule.getAssignedDispatches());
+
+        List<String> routes = new ArrayList<>();
+        for (ScheduledWindow w : schedule.getSchedule()) {
+            routes.add(w.getWindowStart() + "-" + w.getWindowEnd() + " " + w.getDroneId() + " " + w.getDispatchIds());
+        }
+        assertEquals(List.of("09:00-10:00 D1 [1, 2]", "09:00-10:00 D3 [3]", "14:00-15:00 D2 [4]"), routes);
+
+        assertEquals(3, schedule.getDronesUsed());
+        DroneUtilization d1 = schedule.getUtilization().get(0);
+        assertEquals("D1", d1.getDroneId());
+        assertEquals(1.0, d1.getLoadFactor(), 1e-9);
+        assertEquals((1.0 + 0.75 + 0.7) / 3, schedule.getAverageLoadFactor(), 1e-9);
+    }
+
+    @Test
+    void routesRespectMoveAndCostLimits() {
+        Drone shortRange = drone("D1", 10, false, slot(DayOfWeek.MONDAY, "08:00", "18:00"));
+        shortRange.getCapability().setMaxMoves(30);
+        Drone longRange = drone("D2", 10, false, slot(DayOfWeek.MONDAY, "08:00", "18:00"));
+        longRange.getCapability().setMaxMoves(500);
+        for (Drone d : List.of(shortRange, longRange)) {
+            d.getCapability().setCostInitial(10);
+            d.getCapability().setCostFinal(10);
+            d.getCapability().setCostPerMove(1);
+        }
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{shortRange, longRange});
+
+        MedDispatchRec near = dispatch(1, "09:10", 3, false);
+        near.setDelivery(new Position(DEPOT_LNG + 0.0003, DEPOT_LAT));
+        // about 20 steps each way: beyond the short range drone even though it has the room
+        MedDispatchRec far = dispatch(2, "09:20", 2, false);
+        far.setDelivery(new Position(DEPOT_LNG + 0.003, DEPOT_LAT));
+        // no drone flies anywhere for less than its fixed costs
+        MedDispatchRec cheap = dispatch(3, "09:30", 1, false);
+        cheap.setDelivery(new Position(DEPOT_LNG, DEPOT_LAT + 0.0003));
+        cheap.getRequirements().setMaxCost(0.5);
+
+        DayScheduleResponse schedule = daySchedulerService.schedule(List.of(near, far, cheap), 60);
+
+        List<String> routes = new ArrayList<>();
+        for (ScheduledWindow w : schedule.getSchedule()) {
+            routes.add(w.getDroneId() + " " + w.getDispatchIds());
+        }
+        assertEquals(List.of("D1 [1]", "D2 [2]"), routes);
+        assertEquals(List.of(3), schedule.getUnassignedDispatchIds());
+    }
+
+    @Test
+    void highRiskDronesAreUsedOnlyWhenNothingElseFits() {
+        Drone worn = drone("D1", 5, false, slot(DayOfWeek.MONDAY, "08:00", "18:00"));
+        Drone healthy = drone("D2", 10, false, slot(DayOfWeek.MONDAY, "08:00", "18:00"));
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{worn, healthy});
+        MaintenancePlan high = new MaintenancePlan();
+        high.setDroneId("D1");
+        high.setRiskLevel("HIGH");
+        when(maintenanceService.snapshots(anyCollection(), any())).thenReturn(Map.of("D1", high));
+
+        List<MedDispatchRec> day = List.of(
+                dispatch(1, "09:10", 4, false),
+                dispatch(2, "14:10", 8, false),
+                dispatch(3, "14:20", 4, false));
+
+        DayScheduleResponse schedule = daySchedulerService.schedule(day, 60);
+
+        List<String> routes = new ArrayList<>();
+        for (ScheduledWindow w : schedule.getSchedule()) {
+            routes.add(w.getWindowStart() + " " + w.getDroneId() + " " + w.getDispatchIds());
+        }
+        assertEquals(List.of("09:00 D2 [1]", "14:00 D1 [3]", "14:00 D2 [2]"), routes);
+        assertTrue(schedule.getUnassignedDispatchIds().isEmpty());
+    }
+
+    @Test
+    void rejectsInvalidWindowAndHandlesEmptyDay() {
+        assertThrows(IllegalArgumentException.class, () -> daySchedulerService.schedule(List.of(), 0));
+        assertEquals(0, daySchedulerService.schedule(List.of(), null).getSchedule().size());
+    }
+
+    private static MedDispatchRec dispatch(int id, String time, double capacity, boolean cooling) {
+        MedDispatchRequirements requirements = new MedDispatchRequirements();
+        requirements.setCapacity(capacity);
+        requirements.setCooling(cooling);
+        MedDispatchRec rec = new MedDispatchRec();
+        rec.setId(id);
+        rec.setDate("2026-01-12");
+        rec.setTime(time);
+        rec.setRequirements(requirements);
+        return rec;
+    }
+
+    private static Drone drone(String id, double capacity, boolean cooling, DroneWeeklyAvailability slot) {
+        DroneCapability capability = new DroneCapability();
+        capability.setCapacity(capacity);
+        capability.setCooling(cooling);
+        Drone drone = new Drone();
+        drone.setId(id);
+        drone.setCapability(capability);
+        drone.setWeeklyAvailabilities(List.of(slot));
+        return drone;
+    }
+
+    private static DroneWeeklyAvailability slot(DayOfWeek day, String from, String to) {
+        DroneWeeklyAvailability slot = new DroneWeeklyAvailability();
+        slot.setDay(day);
+        slot.setFrom(from);
+        slot.setTo(to);
+        return slot;
+    }
+}
@@ -1,20 +1,50 @@
 package com.example.cw1.service;
 
+import com.example.cw1.dto.DeliveryFlightDto;
 import com.example.cw1.dto.DeliveryPathResponse;
+import com.example.cw1.dto.DeliveryQuoteResponse;
 import com.example.cw1.dto.Drone;
 import com.example.cw1.dto.DroneCapability;
+import com.example.cw1.dto.MaintenanceLog;
 import com.example.cw1.dto.MaintenancePlan;
 import com.example.cw1.dto.MedDispatchRec;
 import com.example.cw1.dto.MedDispatchRequirements;
+import com.example.cw1.dto.MissionAssignment;
+import com.example.cw1.dto.Position;
+import com.example.cw1.dto.ServicePoint;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,8 +65,7 @@ class DeliveryPlanningServiceTest {
         Drone highRisk = drone("drn-high", 30, true, false);
         when(ilpDataService.getDrones()).thenReturn(new Drone[]{lowRisk, highRisk});
 
-        when(maintenanceService.snapshot("drn-low")).thenReturn(plan("drn-low", 25.0, "LOW", 12.0, 10));
-        when(maintenanceService.snapshot("drn-high")).thenReturn(plan("drn-high", 75.0, "HIGH", 4.0, 2));
+        stubPlans(plan("drn-low", 25.0, "LOW", 12.0, 10), plan("drn-high", 75.0, "HIGH", 4.0, 2));
 
         DeliveryPathResponse response = service.calcDeliveryPath(
                 List.of(dispatch(1, 12, true, false, 1500.0))
@@ -54,7 +83,7 @@ class DeliveryPlanningServiceTest {
         Drone highCapacity = drone("drn-large", 40, false, false);
         when(ilpDataService.getDrones()).thenReturn(new Drone[]{insufficient, highCapacity});
 
-        when(maintenanceService.snapshot("drn-large")).thenReturn(plan("drn-large", 82.0, "HIGH", 5.0, 3));
+        stubPlans(plan("drn-large", 82.0, "HIGH", 5.0, 3));
 
         DeliveryPathResponse response = service.calcDeliveryPath(
                 List.of(dispatch(2, 25, false, false, null))
@@ -80,6 +109,448 @@ class DeliveryPlanningServiceTest {
         return drone;
     }
 
+    @Test
+    void loadsMaintenancePlansOnceForAllCapableDrones() {
+        Drone first = drone("drn-a", 30, false, false);
+        Drone second = drone("drn-b", 30, false, false);
+        Drone tooSmall = drone("drn-c", 5, false, false);
+        Drone[] fleet = new Drone[]{first, second, tooSmall};
+        when(ilpDataService.getDrones()).thenReturn(fleet);
+        stubPlans(plan("drn-a", 60.0, "MEDIUM", 10.0, 2), plan("drn-b", 20.0, "LOW", 20.0, 10));
+
+        DeliveryPathResponse response = service.calcDeliveryPath(
+                List.of(dispatch(1, 10, false, false, null))
+        );
+        service.calcDeliveryPath(List.of(dispatch(2, 12, false, false, null)));
+
+        assertEquals("drn-b", response.getDronePaths().get(0).getDroneId());
+        verify(maintenanceService, times(1)).snapshots(List.of("drn-a", "drn-b", "drn-c"), fleet);
+    }
+
+    @Test
+    void reusesCachedPlanUntilMaintenanceVersionChanges() {
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone("drn-a", 30, false, false)});
+        stubPlans(plan("drn-a", 20.0, "LOW", 20.0, 10));
+        AtomicLong version = new AtomicLong(1);
+        when(maintenanceService.version()).thenAnswer(invocation -> version.get());
+
+        DeliveryPathResponse first = service.calcDeliveryPath(List.of(dispatch(1, 10, false, false, null)));
+        DeliveryPathResponse second = service.calcDeliveryPath(List.of(dispatch(1, 10, false, false, null)));
+        version.incrementAndGet();
+        DeliveryPathResponse third = service.calcDeliveryPath(List.of(dispatch(1, 10, false, false, null)));
+
+        assertSame(first, second);
+        assertNotSame(second, third);
+        assertEquals(first.getTotalMoves(), third.getTotalMoves());
+        assertEquals(1, service.planCache().hits());
+        assertEquals(2, service.planCache().misses());
+        // the plan for the old version is not cleared, only left to age out
+        assertEquals(2, service.planCache().size());
+    }
+
+    @Test
+    void recordingLogsWhilePlanningOnAColdIndexDoesNotDeadlock() throws Exception {
+        Path store = Paths.get("storage", "maintenance-log.json");
+        MaintenanceService maintenance = new MaintenanceService(ilpDataService);
+        DeliveryPlanningService planner = new DeliveryPlanningService();
+        ReflectionTestUtils.setField(planner, "ilpDataService", ilpDataService);
+        ReflectionTestUtils.setField(planner, "maintenanceService", maintenance);
+        planner.registerMaintenanceListener();
+        // every round lists a different fleet, so each plan rebuilds the capability index
+        AtomicInteger round = new AtomicInteger();
+        when(ilpDataService.getDrones()).thenAnswer(invocation ->
+                new Drone[]{drone("drn-a", 30 + round.get(), false, false)});
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> planning = pool.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    round.incrementAndGet();
+                    planner.calcDeliveryPath(List.of(dispatch(i + 1, 10, false, false, null)));
+                }
+            });
+            Future<?> logging = pool.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    MaintenanceLog log = new MaintenanceLog();
+                    log.setDroneId("drn-a");
+                    log.setFlightHours(1.0);
+                    maintenance.recordLog(log);
+                }
+            });
+
+            planning.get(60, TimeUnit.SECONDS);
+            logging.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+            Files.writeString(store, "{}");
+        }
+    }
+
+    @Test
+    void planningAnotherFleetDoesNotChangeAnIndexAlreadyInUse() {
+        Drone[] east = {drone("drn-east-1", 30, false, false), drone("drn-east-2", 30, false, false)};
+        Drone[] west = {drone("drn-west-1", 30, false, false)};
+        when(maintenanceService.snapshots(anyCollection(), any())).thenReturn(Map.of());
+
+        when(ilpDataService.getDrones()).thenReturn(east);
+        service.calcDeliveryPath(List.of(dispatch(1, 10, false, false, null)));
+        DroneCapabilityIndex eastIndex = service.capabilityIndex();
+        when(ilpDataService.getDrones()).thenReturn(west);
+        DeliveryPathResponse westPlan = service.calcDeliveryPath(List.of(dispatch(2, 10, false, false, null)));
+
+        // a request still holding the east index keeps selecting east drones
+        assertNotSame(eastIndex, service.capabilityIndex());
+        assertEquals("drn-east-1", eastIndex.best(10, false, false).drone().getId());
+        assertEquals("drn-west-1", westPlan.getDronePaths().get(0).getDroneId());
+    }
+
+    @Test
+    void differentDispatchesAreCachedSeparately() {
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone("drn-a", 30, false, false)});
+        stubPlans(plan("drn-a", 20.0, "LOW", 20.0, 10));
+
+        DeliveryPathResponse one = service.calcDeliveryPath(List.of(dispatch(1, 10, false, false, null)));
+        DeliveryPathResponse two = service.calcDeliveryPath(List.of(
+                dispatch(1, 10, false, false, null), dispatch(2, 5, false, false, null)));
+
+        assertNotSame(one, two);
+        assertEquals(2, service.planCache().size());
+        assertEquals(0, service.planCache().hits());
+    }
+
+    @Test
+    void quoteMatchesMaterializedPathTotals() {
+        Drone drone = drone("drn-test", 80, false, false);
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone});
+        stubPlans(plan("drn-test", 30.0, "LOW", 20.0, 10));
+        List<MedDispatchRec> batch = List.of(
+                dispatch(1, 10, false, false, null),
+                dispatch(2, 15, false, false, 500.0),
+                dispatch(3, 20, false, false, null),
+                dispatch(4, 5, false, false, null)
+        );
+
+        DeliveryPathResponse path = service.calcDeliveryPath(batch);
+        DeliveryQuoteResponse quote = service.quoteDelivery(batch);
+
+        assertTrue(quote.isFeasible());
+        assertEquals("drn-test", quote.getDroneId());
+        assertEquals(path.getTotalMoves(), quote.getTotalMoves());
+        assertEquals(path.getTotalCost(), quote.getTotalCost(), 1e-9);
+        List<DeliveryFlightDto> flights = path.getDronePaths().get(0).getDeliveries();
+        for (int i = 0; i < flights.size(); i++) {
+            assertEquals(flights.get(i).getFlightPath().size() - 1, quote.getMovesPerDelivery().get(i));
+        }
+    }
+
+    @Test
+    void launchesFromDepotWithFewestMoves() {
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone("drn-test", 80, false, false)});
+        stubPlans(plan("drn-test", 30.0, "LOW", 20.0, 10));
+        ServicePoint far = new ServicePoint("Far", 1, new Position(-3.30, 55.90));
+        ServicePoint near = new ServicePoint("Near", 2, new Position(-3.1855, 55.9458));
+        when(ilpDataService.getServicePoints()).thenReturn(new ServicePoint[]{far, near});
+        List<MedDispatchRec> batch = List.of(dispatch(1, 10, false, false, null), dispatch(2, 10, false, false, null));
+
+        DeliveryPathResponse path = service.calcDeliveryPath(batch);
+        DeliveryQuoteResponse quote = service.quoteDelivery(batch);
+
+        assertEquals("Near", path.getDronePaths().get(0).getServicePoint().getName());
+        List<DeliveryFlightDto> flights = path.getDronePaths().get(0).getDeliveries();
+        Position start = flights.get(0).getFlightPath().get(0);
+        List<Position> lastPath = flights.get(flights.size() - 1).getFlightPath();
+        Position end = lastPath.get(lastPath.size() - 1);
+        assertEquals(-3.1855, start.getLng(), 1e-12);
+        assertEquals(55.9458, start.getLat(), 1e-12);
+        assertEquals(-3.1855, end.getLng(), 1e-12);
+        assertEquals(55.9458, end.getLat(), 1e-12);
+        assertEquals(path.getTotalMoves(), quote.getTotalMoves());
+    }
+
+    @Test
+    void servesTheLoadedDepotsWhileAStaleIndexIsRefreshed() throws Exception {
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone("drn-test", 80, false, false)});
+        stubPlans(plan("drn-test", 30.0, "LOW", 20.0, 10));
+        ServicePoint near = new ServicePoint("Near", 2, new Position(-3.1855, 55.9458));
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        when(ilpDataService.getServicePoints()).thenAnswer(invocation -> {
+            if (loads.incrementAndGet() > 1) {
+                refreshing.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return new ServicePoint[]{near};
+        });
+        ReflectionTestUtils.setField(service, "servicePointRefreshMs", 0L);
+        try {
+            service.calcDeliveryPath(List.of(dispatch(1, 10, false, false, null)));
+
+            // the refresh started by this request hangs on ILP; planning carries on with the loaded depots
+            DeliveryPathResponse path = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> service.calcDeliveryPath(List.of(dispatch(2, 10, false, false, null))));
+            assertTrue(refreshing.await(5, TimeUnit.SECONDS));
+            service.calcDeliveryPath(List.of(dispatch(3, 10, false, false, null)));
+
+            assertEquals("Near", path.getDronePaths().get(0).getServicePoint().getName());
+            assertEquals(2, loads.get());
+        } finally {
+            release.countDown();
+            service.stopBackgroundWork();
+        }
+    }
+
+    @Test
+    void fliesToRealDeliveryPositions() {
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone("drn-test", 80, false, false)});
+        stubPlans(plan("drn-test", 30.0, "LOW", 20.0, 10));
+        MedDispatchRec rec = dispatch(1, 10, false, false, null);
+        rec.setDelivery(new Position(-3.1880, 55.9430));
+
+        DeliveryPathResponse path = service.calcDeliveryPath(List.of(rec));
+
+        List<Position> flight = path.getDronePaths().get(0).getDeliveries().get(0).getFlightPath();
+        assertTrue(flight.stream().anyMatch(p -> p.getLng() == -3.1880 && p.getLat() == 55.9430));
+        assertEquals(path.getTotalMoves(), service.quoteDelivery(List.of(rec)).getTotalMoves());
+    }
+
+    @Test
+    void clustersLargeBatchesIntoOneRoutePerDrone() {
+        Drone[] fleet = {drone("drn-a", 200, false, false), drone("drn-b", 200, false, false)};
+        for (Drone d : fleet) {
+            d.getCapability().setMaxMoves(0);
+        }
+        when(ilpDataService.getDrones()).thenReturn(fleet);
+        stubPlans(plan("drn-a", 20.0, "LOW", 20.0, 10), plan("drn-b", 30.0, "LOW", 20.0, 10));
+        List<MedDispatchRec> batch = new java.util.ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            MedDispatchRec rec = dispatch(i + 1, 1, false, false, null);
+            double base = i % 2 == 0 ? -3.19 : -3.17;
+            rec.setDelivery(new Position(base + i * 0.0001, 55.944));
+            batch.add(rec);
+        }
+
+        DeliveryPathResponse path = service.calcDeliveryPath(batch);
+        DeliveryQuoteResponse quote = service.quoteDelivery(batch);
+
+        assertEquals(2, path.getDronePaths().size());
+        assertNotEquals(path.getDronePaths().get(0).getDroneId(), path.getDronePaths().get(1).getDroneId());
+        for (var dronePath : path.getDronePaths()) {
+            assertEquals(10, dronePath.getDeliveries().size());
+            int parity = dronePath.getDeliveries().get(0).getDeliveryId() % 2;
+            assertTrue(dronePath.getDeliveries().stream().allMatch(d -> d.getDeliveryId() % 2 == parity));
+        }
+        assertTrue(quote.isFeasible());
+        assertEquals(List.of("drn-a", "drn-b"), quote.getDroneIds());
+        assertEquals(path.getTotalMoves(), quote.getTotalMoves());
+        assertEquals(path.getTotalCost(), quote.getTotalCost(), 1e-9);
+    }
+
+    @Test
+    void matchesRoutesToDronesAsAWholeInsteadOfRouteByRoute() {
+        Drone cooled = drone("drn-cool", 200, true, false);
+        Drone plain = drone("drn-plain", 200, false, false);
+        Drone[] fleet = {cooled, plain};
+        for (Drone d : fleet) {
+            d.getCapability().setMaxMoves(0);
+        }
+        when(ilpDataService.getDrones()).thenReturn(fleet);
+        stubPlans(plan("drn-cool", 10.0, "LOW", 20.0, 10), plan("drn-plain", 40.0, "MEDIUM", 20.0, 10));
+        List<MedDispatchRec> batch = new java.util.ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            // the first route has no cooling need, so route by route it would take the healthier cooled drone
+            MedDispatchRec rec = dispatch(i + 1, 1, i % 2 == 1, false, null);
+            double base = i % 2 == 0 ? -3.19 : -3.17;
+            rec.setDelivery(new Position(base + i * 0.0001, 55.944));
+            batch.add(rec);
+        }
+
+        DeliveryPathResponse path = service.calcDeliveryPath(batch);
+
+        assertNull(path.getFailedConstraint());
+        assertEquals(2, path.getDronePaths().size());
+        for (var dronePath : path.getDronePaths()) {
+            boolean cooling = dronePath.getDeliveries().get(0).getDeliveryId() % 2 == 0;
+            assertEquals(cooling ? "drn-cool" : "drn-plain", dronePath.getDroneId());
+        }
+    }
+
+    @Test
+    void movesIssuedRouteOffADroneThatTurnsHighRisk() {
+        Drone first = drone("drn-a", 30, false, false);
+        Drone second = drone("drn-b", 30, false, false);
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{first, second});
+        stubPlans(plan("drn-a", 10.0, "LOW", 20.0, 10), plan("drn-b", 40.0, "MEDIUM", 10.0, 5));
+        DeliveryPathResponse path = service.calcDeliveryPath(List.of(dispatch(1, 10, false, false, null)));
+        assertEquals("drn-a", path.getDronePaths().get(0).getDroneId());
+
+        service.reassignMissions(plan("drn-a", 20.0, "LOW", 18.0, 9));
+        assertEquals(0, service.missions().reassigned());
+        service.reassignMissions(plan("drn-a", 85.0, "HIGH", 1.0, 0));
+
+        assertTrue(service.missions().missionsFor("drn-a").isEmpty());
+        assertEquals(List.of(1), service.missions().missionsFor("drn-b").get(0).key());
+        assertEquals(1, service.missions().reassigned());
+        assertEquals(0, service.missions().unresolved());
+        MissionAssignment assignment = service.missionFor(1);
+        assertEquals("drn-b", assignment.getDroneId());
+        assertEquals("drn-a", assignment.getIssuedDroneId());
+        assertNull(service.missionFor(2));
+    }
+
+    @Test
+    void reassignsOffTheMaintenanceThread() throws Exception {
+        List<String> callers = new CopyOnWriteArrayList<>();
+        Drone[] fleet = {drone("drn-a", 30, false, false), drone("drn-b", 30, false, false)};
+        when(ilpDataService.getDrones()).thenAnswer(invocation -> {
+            callers.add(Thread.currentThread().getName());
+            return fleet;
+        });
+        stubPlans(plan("drn-a", 10.0, "LOW", 20.0, 10), plan("drn-b", 40.0, "MEDIUM", 10.0, 5));
+        service.calcDeliveryPath(List.of(dispatch(1, 10, false, false, null)));
+        service.registerMaintenanceListener();
+        ArgumentCaptor<Consumer<MaintenancePlan>> listeners = ArgumentCaptor.captor();
+        verify(maintenanceService).addPlanListener(eq("mission-reassignment"), listeners.capture());
+
+        listeners.getValue().accept(plan("drn-a", 85.0, "HIGH", 1.0, 0));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.missions().reassigned() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("drn-b", service.missionFor(1).getDroneId());
+        assertEquals("mission-reassignment", callers.get(callers.size() - 1));
+    }
+
+    @Test
+    void keepsRouteOnHighRiskDroneWhenNoOtherDroneCanFlyIt() {
+        Drone only = drone("drn-a", 30, false, false);
+        Drone small = drone("drn-small", 5, false, false);
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{only, small});
+        stubPlans(plan("drn-a", 10.0, "LOW", 20.0, 10));
+        service.calcDeliveryPath(List.of(dispatch(1, 10, false, false, null)));
+
+        service.reassignMissions(plan("drn-a", 85.0, "HIGH", 1.0, 0));
+        service.reassignMissions(plan("drn-a", 90.0, "HIGH", 0.5, 0));
+
+        assertEquals(1, service.missions().missionsFor("drn-a").size());
+        assertEquals(0, service.missions().reassigned());
+        assertEquals(1, service.missions().unresolved());
+    }
+
+    @Test
+    void expiredBudgetReturnsTruncatedPlanThatIsNotCached() throws Exception {
+        Drone[] fleet = {drone("drn-a", 200, false, false), drone("drn-b", 200, false, false)};
+        for (Drone d : fleet) {
+            d.getCapability().setMaxMoves(0);
+        }
+        when(ilpDataService.getDrones()).thenReturn(fleet);
+        stubPlans(plan("drn-a", 20.0, "LOW", 20.0, 10), plan("drn-b", 30.0, "LOW", 20.0, 10));
+        List<MedDispatchRec> batch = new java.util.ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            MedDispatchRec rec = dispatch(i + 1, 1, false, false, null);
+            rec.setDelivery(new Position(-3.19 + (i % 5) * 0.004, 55.94 + (i / 5) * 0.002));
+            batch.add(rec);
+        }
+        PlanningBudget budget = PlanningBudget.ofMillis(1);
+        Thread.sleep(5);
+
+        DeliveryPathResponse truncated = service.calcDeliveryPath(batch, budget);
+        DeliveryPathResponse full = service.calcDeliveryPath(batch);
+
+        assertEquals("truncated", truncated.getPlanStatus());
+        assertEquals(20, truncated.getDronePaths().stream().mapToInt(p -> p.getDeliveries().size()).sum());
+        assertEquals("complete", full.getPlanStatus());
+        assertNotSame(truncated, full);
+        assertSame(full, service.calcDeliveryPath(batch, PlanningBudget.ofMillis(10_000)));
+    }
+
+    @Test
+    void reportsFleetWhenRoutesOutnumberDrones() {
+        Drone only = drone("drn-a", 200, false, false);
+        only.getCapability().setMaxMoves(0);
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{only});
+        stubPlans(plan("drn-a", 20.0, "LOW", 20.0, 10));
+        List<MedDispatchRec> batch = new java.util.ArrayList<>();
+        for (int i = 0; i < 13; i++) {
+            batch.add(dispatch(i + 1, 1, false, false, null));
+        }
+
+        DeliveryPathResponse path = service.calcDeliveryPath(batch);
+
+        assertTrue(path.getDronePaths().isEmpty());
+        assertEquals("fleet", path.getFailedConstraint());
+    }
+
+    @Test
+    void quoteReportsInfeasibleWhenMaxCostExceeded() {
+        Drone drone = drone("drn-test", 30, false, false);
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone});
+        stubPlans(plan("drn-test", 30.0, "LOW", 10.0, 5));
+
+        DeliveryQuoteResponse quote = service.quoteDelivery(List.of(dispatch(1, 10, false, false, 0.001)));
+
+        assertFalse(quote.isFeasible());
+        assertTrue(quote.getTotalMoves() > 0);
+        assertEquals("maxCost", quote.getFailedConstraint());
+    }
+
+    @Test
+    void quoteWithEmptyDispatchesIsNotFeasible() {
+        assertFalse(service.quoteDelivery(List.of()).isFeasible());
+    }
+
+    @Test
+    void rejectsBestDroneWhenItsCostBreaksMaxCost() {
+        Drone pricey = drone("drn-pricey", 30, false, false);
+        pricey.getCapability().setCostPerMove(50);
+        Drone cheap = drone("drn-cheap", 30, false, false);
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{pricey, cheap});
+        stubPlans(plan("drn-pricey", 10.0, "LOW", 20.0, 10), plan("drn-cheap", 40.0, "MEDIUM", 10.0, 5));
+
+        DeliveryPathResponse response = service.calcDeliveryPath(
+                List.of(dispatch(1, 10, false, false, 40.0))
+        );
+
+        assertEquals("drn-cheap", response.getDronePaths().get(0).getDroneId());
+        assertNull(response.getFailedConstraint());
+    }
+
+    @Test
+    void reportsMaxMovesWhenNoDroneCanFlyTheBatch() {
+        Drone shortRange = drone("drn-short", 50, false, false);
+        shortRange.getCapability().setMaxMoves(5);
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{shortRange});
+        stubPlans(plan("drn-short", 10.0, "LOW", 20.0, 10));
+
+        DeliveryPathResponse response = service.calcDeliveryPath(
+                List.of(dispatch(1, 10, false, false, null), dispatch(2, 10, false, false, null))
+        );
+
+        assertTrue(response.getDronePaths().isEmpty());
+        assertEquals("maxMoves", response.getFailedConstraint());
+    }
+
+    @Test
+    void reportsMaxCostAndCapabilityFailures() {
+        Drone drone = drone("drn-test", 30, false, false);
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone});
+        stubPlans(plan("drn-test", 30.0, "LOW", 10.0, 5));
+
+        DeliveryPathResponse tooCheap = service.calcDeliveryPath(List.of(dispatch(1, 10, false, false, 0.001)));
+        DeliveryPathResponse tooHeavy = service.calcDeliveryPath(List.of(dispatch(2, 90, false, false, null)));
+
+        assertEquals("maxCost", tooCheap.getFailedConstraint());
+        assertEquals("capability", tooHeavy.getFailedConstraint());
+    }
+
+    private void stubPlans(MaintenancePlan... plans) {
+        Map<String, MaintenancePlan> byId = new HashMap<>();
+        for (MaintenancePlan plan : plans) {
+            byId.put(plan.getDroneId(), plan);
+        }
+        when(maintenanceService.snapshots(anyCollection(), any())).thenReturn(byId);
+    }
+
     private MaintenancePlan plan(String droneId, double riskScore, String riskLevel, double hoursUntilService, int missionBuffer) {
         MaintenancePlan plan = new MaintenancePlan();
         plan.setDroneId(droneId);
@@ -157,7 +628,7 @@ class DeliveryPlanningServiceTest {
         Drone coolingDrone = drone("drn-cool", 30, true, false);
         Drone noCoolingDrone = drone("drn-nocool", 30, false, false);
         when(ilpDataService.getDrones()).thenReturn(new Drone[]{noCoolingDrone, coolingDrone});
-        when(maintenanceService.snapshot("drn-cool")).thenReturn(plan("drn-cool", 30.0, "LOW", 10.0, 5));
+        stubPlans(plan("drn-cool", 30.0, "LOW", 10.0, 5));
 
         DeliveryPathResponse response = service.calcDeliveryPath(
                 List.of(dispatch(1, 10, true, false, null)) // Needs cooling
@@ -174,7 +645,7 @@ class DeliveryPlanningServiceTest {
         Drone heatingDrone = drone("drn-heat", 30, false, true);
         Drone noHeatingDrone = drone("drn-noheat", 30, false, false);
         when(ilpDataService.getDrones()).thenReturn(new Drone[]{noHeatingDrone, heatingDrone});
-        when(maintenanceService.snapshot("drn-heat")).thenReturn(plan("drn-heat", 30.0, "LOW", 10.0, 5));
+        stubPlans(plan("drn-heat", 30.0, "LOW", 10.0, 5));
 
         DeliveryPathResponse response = service.calcDeliveryPath(
                 List.of(dispatch(1, 10, false, true, null)) // Needs heating
@@ -194,7 +665,7 @@ class DeliveryPlanningServiceTest {
         
         Drone validDrone = drone("drn-valid", 30, false, false);
         when(ilpDataService.getDrones()).thenReturn(new Drone[]{noCapDrone, validDrone});
-        when(maintenanceService.snapshot("drn-valid")).thenReturn(plan("drn-valid", 30.0, "LOW", 10.0, 5));
+        stubPlans(plan("drn-valid", 30.0, "LOW", 10.0, 5));
 
         DeliveryPathResponse response = service.calcDeliveryPath(
                 List.of(dispatch(1, 10, false, false, null))
@@ -207,7 +678,7 @@ class DeliveryPlanningServiceTest {
     void calcDeliveryPathWithMaxCostExceeded() {
         Drone drone = drone("drn-test", 30, false, false);
         when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone});
-        when(maintenanceService.snapshot("drn-test")).thenReturn(plan("drn-test", 30.0, "LOW", 10.0, 5));
+        stubPlans(plan("drn-test", 30.0, "LOW", 10.0, 5));
 
         // Create dispatch with very low maxCost that will be exceeded
         DeliveryPathResponse response = service.calcDeliveryPath(
@@ -222,7 +693,7 @@ class DeliveryPlanningServiceTest {
     void calcDeliveryPathWithMultipleDispatches() {
         Drone drone = drone("drn-test", 50, true, true);
         when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone});
-        when(maintenanceService.snapshot("drn-test")).thenReturn(plan("drn-test", 30.0, "LOW", 20.0, 10));
+        stubPlans(plan("drn-test", 30.0, "LOW", 20.0, 10));
 
         DeliveryPathResponse response = service.calcDeliveryPath(
                 List.of(
@@ -237,42 +708,49 @@ class DeliveryPlanningServiceTest {
     }
 
     @Test
-    void calcDeliveryPathAsGeoJsonWithEmptyDispatches() {
+    void calcDeliveryPathAsGeoJsonWithEmptyDispatches() throws Exception {
         String geoJson = service.calcDeliveryPathAsGeoJson(List.of());
-        
-        assertNotNull(geoJson);
-        assertTrue(geoJson.contains("LineString"));
-        assertTrue(geoJson.contains("coordinates"));
+
+        JsonNode root = new ObjectMapper().readTree(geoJson);
+        assertEquals("FeatureCollection", root.get("type").asText());
+        assertEquals(1, root.get("features").size());
+        assertEquals("servicePoint", root.get("features").get(0).get("properties").get("kind").asText());
     }
 
     @Test
     void calcDeliveryPathAsGeoJsonWithNullDispatches() {
         String geoJson = service.calcDeliveryPathAsGeoJson(null);
-        
+
         assertNotNull(geoJson);
-        assertTrue(geoJson.contains("LineString"));
+        assertTrue(geoJson.contains("FeatureCollection"));
     }
 
     @Test
-    void calcDeliveryPathAsGeoJsonWithValidPath() {
+    void calcDeliveryPathAsGeoJsonWithValidPath() throws Exception {
         Drone drone = drone("drn-test", 30, false, false);
         when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone});
-        when(maintenanceService.snapshot("drn-test")).thenReturn(plan("drn-test", 30.0, "LOW", 20.0, 10));
+        stubPlans(plan("drn-test", 30.0, "LOW", 20.0, 10));
 
         String geoJson = service.calcDeliveryPathAsGeoJson(
-                List.of(dispatch(1, 10, false, false, null))
+                List.of(dispatch(1, 10, false, false, null), dispatch(2, 10, false, false, null))
         );
-        
-        assertNotNull(geoJson);
-        assertTrue(geoJson.contains("Feature"));
-        assertTrue(geoJson.contains("LineString"));
+
+        JsonNode features = new ObjectMapper().readTree(geoJson).get("features");
+        // two flights, two delivery points, one service point
+        assertEquals(5, features.size());
+        JsonNode secondFlight = features.get(2);
+        assertEquals("LineString", secondFlight.get("geometry").get("type").asText());
+        assertEquals("drn-test", secondFlight.get("properties").get("droneId").asText());
+        assertEquals(2, secondFlight.get("properties").get("deliveryId").asInt());
+        assertTrue(secondFlight.get("geometry").get("coordinates").size() > 2);
+        assertEquals("Point", features.get(3).get("geometry").get("type").asText());
     }
 
     @Test
     void calcDeliveryPathWithNullDroneEntry() {
         Drone validDrone = drone("drn-valid", 30, false, false);
         when(ilpDataService.getDrones()).thenReturn(new Drone[]{null, validDrone});
-        when(maintenanceService.snapshot("drn-valid")).thenReturn(plan("drn-valid", 30.0, "LOW", 10.0, 5));
+        stubPlans(plan("drn-valid", 30.0, "LOW", 10.0, 5));
 
         DeliveryPathResponse response = service.calcDeliveryPath(
                 List.of(dispatch(1, 10, false, false, null))
@@ -300,8 +778,7 @@ class DeliveryPlanningServiceTest {
         Drone highRisk = drone("drn-high", 30, false, false);
         when(ilpDataService.getDrones()).thenReturn(new Drone[]{highRisk, lowRisk});
         
-        when(maintenanceService.snapshot("drn-low")).thenReturn(plan("drn-low", 20.0, "LOW", 20.0, 10));
-        when(maintenanceService.snapshot("drn-high")).thenReturn(plan("drn-high", 80.0, "HIGH", 5.0, 1));
+        stubPlans(plan("drn-low", 20.0, "LOW", 20.0, 10), plan("drn-high", 80.0, "HIGH", 5.0, 1));
 
         DeliveryPathResponse response = service.calcDeliveryPath(
                 List.of(dispatch(1, 10, false, false, null))
@@ -317,7 +794,7 @@ class DeliveryPlanningServiceTest {
     void calcDeliveryPathWithNullMaintenancePlan() {
         Drone drone = drone("drn-test", 30, false, false);
         when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone});
-        when(maintenanceService.snapshot("drn-test")).thenReturn(null); // No maintenance plan
+        stubPlans(); // No maintenance plan
 
         DeliveryPathResponse response = service.calcDeliveryPath(
                 List.of(dispatch(1, 10, false, false, null))
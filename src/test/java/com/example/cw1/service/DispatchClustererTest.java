@@ -0,0 +1,90 @@
+package com.example.cw1.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatchClustererTest {
+
+    @Test
+    void coversEveryPointWithBoundedGroups() {
+        Random random = new Random(3);
+        int n = 101;
+        double[] lng = new double[n];
+        double[] lat = new double[n];
+        for (int i = 0; i < n; i++) {
+            lng[i] = -3.2 + random.nextDouble() * 0.05;
+            lat[i] = 55.93 + random.nextDouble() * 0.03;
+        }
+
+        List<int[]> groups = DispatchClusterer.cluster(lng, lat, 9);
+
+        boolean[] seen = new boolean[n];
+        for (int[] group : groups) {
+            assertTrue(group.length <= 12);
+            int[] sorted = group.clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(sorted, group);
+            for (int i : group) {
+                assertFalse(seen[i]);
+                seen[i] = true;
+            }
+        }
+        for (boolean s : seen) {
+            assertTrue(s);
+        }
+        assertArrayEquals(groups.toArray(), DispatchClusterer.cluster(lng, lat, 9).toArray(),
+                "clustering must be deterministic");
+    }
+
+    @Test
+    void clusteringTimeGrowsRoughlyLinearly() {
+        // 100k points into ~8.3k groups are 833M point-centroid pairs: anything that visits every pair
+        // per iteration cannot finish in time
+        int n = 100_000;
+        int k = n / 12;
+        Random random = new Random(11);
+        double[] lng = new double[n];
+        double[] lat = new double[n];
+        for (int i = 0; i < n; i++) {
+            lng[i] = -3.3 + random.nextDouble() * 0.2;
+            lat[i] = 55.9 + random.nextDouble() * 0.1;
+        }
+
+        List<int[]> groups = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> DispatchClusterer.cluster(lng, lat, k));
+
+        int capacity = (n + k - 1) / k;
+        int covered = 0;
+        for (int[] group : groups) {
+            assertTrue(group.length <= capacity);
+            covered += group.length;
+        }
+        assertEquals(n, covered);
+    }
+
+    @Test
+    void separatesDistantNeighbourhoods() {
+        double[] lng = {0.0, 1.0, 0.001, 1.001, 0.002, 1.002};
+        double[] lat = {0.0, 1.0, 0.0, 1.0, 0.001, 1.001};
+
+        List<int[]> groups = DispatchClusterer.cluster(lng, lat, 2);
+
+        assertEquals(2, groups.size());
+        assertArrayEquals(new int[]{0, 2, 4}, groups.get(0));
+        assertArrayEquals(new int[]{1, 3, 5}, groups.get(1));
+    }
+
+    @Test
+    void singleClusterKeepsDispatchOrder() {
+        List<int[]> groups = DispatchClusterer.cluster(new double[]{3, 1, 2}, new double[]{0, 0, 0}, 1);
+
+        assertEquals(1, groups.size());
+        assertArrayEquals(new int[]{0, 1, 2}, groups.get(0));
+    }
+}
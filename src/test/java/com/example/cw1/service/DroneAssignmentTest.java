@@ -0,0 +1,91 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.MaintenancePlan;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DroneAssignmentTest {
+
+    @Test
+    void matchesBruteForceOptimum() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            int rows = 1 + random.nextInt(5);
+            int columns = rows + random.nextInt(3);
+            double[][] cost = new double[rows][columns];
+            for (double[] row : cost) {
+                for (int j = 0; j < columns; j++) {
+                    row[j] = random.nextInt(4) == 0 ? DroneAssignment.FORBIDDEN : random.nextInt(100) - 50;
+                }
+            }
+
+            int[] match = DroneAssignment.solve(cost, PlanningBudget.unlimited());
+
+            boolean[] taken = new boolean[columns];
+            double total = 0;
+            for (int r = 0; r < rows; r++) {
+                assertFalse(taken[match[r]]);
+                taken[match[r]] = true;
+                total += cost[r][match[r]];
+            }
+            assertEquals(best(cost, 0, new boolean[columns]), total, 1e-6);
+        }
+    }
+
+    @Test
+    void takesTheSecondBestColumnWhenThatFreesTheBestForAnotherRow() {
+        double[][] cost = {
+                {1, 2},
+                {1, DroneAssignment.FORBIDDEN}
+        };
+
+        assertArrayEquals(new int[]{1, 0}, DroneAssignment.solve(cost, PlanningBudget.unlimited()));
+    }
+
+    @Test
+    void givesUpWhenTheBudgetHasRunOut() throws Exception {
+        PlanningBudget budget = PlanningBudget.ofMillis(1);
+        Thread.sleep(5);
+
+        assertNull(DroneAssignment.solve(new double[][]{{1, 2}, {2, 1}}, budget));
+        assertTrue(budget.truncated());
+    }
+
+    @Test
+    void rejectsMoreRowsThanColumns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DroneAssignment.solve(new double[][]{{1}, {2}}, PlanningBudget.unlimited()));
+    }
+
+    @Test
+    void highRiskOutweighsEveryOtherTerm() {
+        MaintenancePlan high = new MaintenancePlan();
+        high.setRiskScore(5.0);
+        high.setRiskLevel("HIGH");
+        high.setMissionBuffer(20);
+        MaintenancePlan medium = new MaintenancePlan();
+        medium.setRiskScore(60.0);
+        medium.setRiskLevel("MEDIUM");
+
+        assertTrue(DroneAssignment.cost(high, 10, 10, 0) > DroneAssignment.cost(medium, 500, 10, 1000));
+        assertTrue(DroneAssignment.cost(medium, 10, 10, 0) < DroneAssignment.cost(medium, 50, 10, 0));
+    }
+
+    private static double best(double[][] cost, int row, boolean[] taken) {
+        if (row == cost.length) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < taken.length; j++) {
+            if (!taken[j]) {
+                taken[j] = true;
+                best = Math.min(best, cost[row][j] + best(cost, row + 1, taken));
+                taken[j] = false;
+            }
+        }
+        return best;
+    }
+}
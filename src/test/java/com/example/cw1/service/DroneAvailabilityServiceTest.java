@@ -1,6 +1,8 @@
 package com.example.cw1.service;
 
 import com.example.cw1.dto.*;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -9,6 +11,7 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.DayOfWeek;
 import java.util.ArrayList;
@@ -361,5 +364,111 @@ class DroneAvailabilityServiceTest {
         // Empty list means no requirements = all drones match
         assertEquals(1, result.size());
     }
-}
 
+    @Test
+    @DisplayName("Dispatches and slots read from JSON keep their times as primitives")
+    void findAvailableDrones_jsonTemporalFields() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Drone drone = mapper.readValue("""
+                {"id": "D1", "capability": {"capacity": 10.0},
+                 "weeklyAvailabilities": [{"day": "MONDAY", "from": "09:00:30", "to": "17:00"}]}
+                """, Drone.class);
+        MedDispatchRec early = mapper.readValue(
+                "{\"id\": 1, \"date\": \"2026-01-12\", \"time\": \"09:00:15\"}", MedDispatchRec.class);
+        MedDispatchRec later = mapper.readValue(
+                "{\"id\": 2, \"date\": \"2026-01-12\", \"time\": \"09:00:30\"}", MedDispatchRec.class);
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{drone});
+
+        assertEquals("09:00:30", drone.getWeeklyAvailabilities().get(0).getFrom());
+        assertEquals("2026-01-12", early.getDate());
+        assertTrue(droneAvailabilityService.findAvailableDrones(List.of(early)).isEmpty());
+        assertEquals(List.of("D1"), droneAvailabilityService.findAvailableDrones(List.of(later)));
+        assertThrows(JsonMappingException.class, () -> mapper.readValue(
+                "{\"id\": 3, \"date\": \"12/01/2026\", \"time\": \"10:00\"}", MedDispatchRec.class));
+    }
+
+    @Test
+    @DisplayName("A malformed ILP slot disables only that slot, not the fleet")
+    void findAvailableDrones_malformedIlpSlot() throws Exception {
+        Drone[] fleet = new ObjectMapper().readValue("""
+                [{"id": "D1", "capability": {"capacity": 10.0},
+                  "weeklyAvailabilities": [{"day": "MONDAY", "from": "9am", "to": "17:00"},
+                                           {"day": "TUESDAY", "from": "09:00", "to": {"h": 17}}]},
+                 {"id": "D2", "capability": {"capacity": 10.0},
+                  "weeklyAvailabilities": [{"day": "MONDAY", "from": "09:00", "to": "17:00"},
+                                           {"day": "TUESDAY", "from": "09:00", "to": "17:00"}]}]
+                """, Drone[].class);
+        when(ilpDataService.getDrones()).thenReturn(fleet);
+
+        assertFalse(fleet[0].getWeeklyAvailabilities().get(0).isComplete());
+        assertFalse(fleet[0].getWeeklyAvailabilities().get(1).isComplete());
+        assertEquals(List.of("D2"), droneAvailabilityService.findAvailableDrones(
+                List.of(createDispatch(1.0, false, false, "2026-01-12", "10:00"))));
+        assertEquals(List.of("D2"), droneAvailabilityService.findAvailableDrones(
+                List.of(createDispatch(1.0, false, false, "2026-01-13", "10:00:30"))));
+    }
+
+    @Test
+    @DisplayName("Parallel evaluation returns the same drones in fleet order")
+    void findAvailableDrones_parallelPreservesOrder() {
+        Drone[] fleet = new Drone[500];
+        for (int i = 0; i < fleet.length; i++) {
+            fleet[i] = createDroneWithSchedule("D" + i, i % 10, DayOfWeek.of(1 + i % 7), "09:00", "12:00");
+        }
+        when(ilpDataService.getDrones()).thenReturn(fleet);
+        List<MedDispatchRec> dispatches = List.of(
+                createDispatch(4.0, false, false, "2026-01-12", "10:00:30"),
+                createDispatch(2.0, true, false, "2026-01-12", "11:15"));
+
+        ReflectionTestUtils.setField(droneAvailabilityService, "parallelThreshold", Long.MAX_VALUE);
+        List<String> sequential = droneAvailabilityService.findAvailableDrones(dispatches);
+        ReflectionTestUtils.setField(droneAvailabilityService, "parallelThreshold", 0L);
+        ReflectionTestUtils.setField(droneAvailabilityService, "results", null);
+        List<String> parallel = droneAvailabilityService.findAvailableDrones(dispatches);
+
+        assertFalse(sequential.isEmpty());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    @DisplayName("Per-dispatch lookup agrees with one-dispatch batches and shares equal signatures")
+    void availableIndicesEach_matchesSingleDispatchBatches() {
+        Drone[] fleet = new Drone[40];
+        for (int i = 0; i < fleet.length; i++) {
+            fleet[i] = createDroneWithSchedule("D" + i, i % 10, DayOfWeek.of(1 + i % 7), "09:00", "12:00");
+        }
+        List<MedDispatchRec> dispatches = List.of(
+                createDispatch(4.0, false, false, "2026-01-12", "10:00"),
+                createDispatch(2.0, true, false, "2026-01-13", "11:15:30"),
+                createDispatch(4.0, false, false, "2026-01-12", "10:00"));
+
+        int[][] each = droneAvailabilityService.availableIndicesEach(fleet, dispatches);
+
+        for (int d = 0; d < dispatches.size(); d++) {
+            assertArrayEquals(droneAvailabilityService.availableIndices(fleet, List.of(dispatches.get(d))), each[d]);
+        }
+        assertSame(each[0], each[2]);
+    }
+
+    @Test
+    @DisplayName("Dispatches sharing a time collapse to one cached signature")
+    void findAvailableDrones_collapsesAndCachesSignatures() {
+        Drone small = createDroneWithSchedule("D1", 3.0, DayOfWeek.MONDAY, "09:00", "12:00");
+        Drone large = createDroneWithSchedule("D2", 8.0, DayOfWeek.MONDAY, "09:00", "12:00");
+        Drone late = createDroneWithSchedule("D3", 8.0, DayOfWeek.MONDAY, "10:30", "12:00");
+        when(ilpDataService.getDrones()).thenReturn(new Drone[]{small, large, late});
+
+        List<MedDispatchRec> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(createDispatch(i % 5 + 1, false, false, "2026-01-12", "10:00"));
+        }
+        batch.add(createDispatch(2.0, false, false, "2026-01-19", "11:00"));
+
+        assertEquals(List.of("D2"), droneAvailabilityService.findAvailableDrones(batch));
+        assertEquals(2, droneAvailabilityService.cachedSignatures());
+
+        assertEquals(List.of("D1", "D2"), droneAvailabilityService.findAvailableDrones(
+                List.of(createDispatch(2.0, false, false, "2026-01-19", "10:00"))));
+        assertEquals(3, droneAvailabilityService.cachedSignatures());
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.Drone;
+import com.example.cw1.dto.DroneCapability;
+import com.example.cw1.dto.MaintenancePlan;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DroneCapabilityIndexTest {
+
+    @Test
+    void emptyFleetSelectsNothing() {
+        assertNull(build(new Drone[0]).best(1, false, false));
+    }
+
+    @Test
+    void selectsHealthiestDroneWithinCapacityAndTemperatureGroups() {
+        Drone small = drone("drn-small", 5, true, true);
+        Drone cold = drone("drn-cold", 20, true, false);
+        Drone warm = drone("drn-warm", 25, false, true);
+        Drone both = drone("drn-both", 30, true, true);
+        DroneCapabilityIndex index = build(new Drone[]{small, cold, warm, both},
+                plan("drn-small", 5, "LOW", 10),
+                plan("drn-cold", 10, "LOW", 10),
+                plan("drn-warm", 20, "LOW", 10),
+                plan("drn-both", 50, "MEDIUM", 0));
+
+        assertEquals("drn-cold", index.best(10, true, false).drone().getId());
+        assertEquals("drn-warm", index.best(10, false, true).drone().getId());
+        assertEquals("drn-both", index.best(10, true, true).drone().getId());
+        assertEquals("drn-small", index.best(1, false, false).drone().getId());
+        assertNull(index.best(40, false, false));
+    }
+
+    @Test
+    void fallsBackToHighRiskOnlyWhenNothingElseFits() {
+        Drone safe = drone("drn-safe", 10, false, false);
+        Drone risky = drone("drn-risky", 40, false, false);
+        DroneCapabilityIndex index = build(new Drone[]{safe, risky},
+                plan("drn-safe", 60, "MEDIUM", 0),
+                plan("drn-risky", 80, "HIGH", 0));
+
+        assertEquals("drn-safe", index.best(5, false, false).drone().getId());
+        assertEquals("drn-risky", index.best(20, false, false).drone().getId());
+    }
+
+    @Test
+    void newMaintenanceVersionIsANewIndexAndLeavesTheOldOneIntact() {
+        Drone a = drone("drn-a", 20, false, false);
+        Drone b = drone("drn-b", 20, false, false);
+        Drone[] fleet = {a, b};
+        DroneCapabilityIndex before = build(fleet,
+                plan("drn-a", 10, "LOW", 5),
+                plan("drn-b", 20, "LOW", 5));
+        DroneCapabilityIndex after = DroneCapabilityIndex.build(fleet, FleetFingerprint.of(fleet), 2,
+                Map.of("drn-a", plan("drn-a", 75, "HIGH", 0), "drn-b", plan("drn-b", 20, "LOW", 5)));
+
+        assertEquals("drn-a", before.best(10, false, false).drone().getId());
+        DroneCapabilityIndex.Selection selection = after.best(10, false, false);
+        assertEquals("drn-b", selection.drone().getId());
+        assertEquals("LOW", selection.plan().getRiskLevel());
+        assertTrue(after.isBuiltFor(FleetFingerprint.of(fleet), 2));
+        assertFalse(after.isBuiltFor(FleetFingerprint.of(fleet), 1));
+    }
+
+    @Test
+    void rankedListsSafeDronesBeforeHighRiskAndHonoursFeasibility() {
+        Drone a = drone("drn-a", 20, false, false);
+        Drone b = drone("drn-b", 30, false, false);
+        Drone c = drone("drn-c", 40, false, false);
+        DroneCapabilityIndex index = build(new Drone[]{a, b, c},
+                plan("drn-a", 10, "LOW", 5),
+                plan("drn-b", 90, "HIGH", 0),
+                plan("drn-c", 30, "LOW", 5));
+
+        List<DroneCapabilityIndex.Selection> ranked = index.ranked(10, false, false, 10);
+        assertEquals(List.of("drn-a", "drn-c", "drn-b"),
+                ranked.stream().map(sel -> sel.drone().getId()).toList());
+        assertEquals(1, index.ranked(10, false, false, 1).size());
+
+        assertEquals("drn-c", index.best(10, false, false, d -> !d.getId().equals("drn-a")).drone().getId());
+        assertNull(index.best(10, false, false, d -> false));
+    }
+
+    @Test
+    void rankingsAreCachedForTheLifeOfAnIndex() {
+        Drone small = drone("drn-small", 10, false, false);
+        Drone large = drone("drn-large", 40, false, false);
+        Drone cold = drone("drn-cold", 40, true, false);
+        Drone[] fleet = {small, large, cold};
+        DroneCapabilityIndex.RankingStats stats = new DroneCapabilityIndex.RankingStats();
+        DroneCapabilityIndex index = DroneCapabilityIndex.build(fleet, FleetFingerprint.of(fleet), 1, Map.of(
+                "drn-small", plan("drn-small", 10, "LOW", 5),
+                "drn-large", plan("drn-large", 20, "LOW", 5),
+                "drn-cold", plan("drn-cold", 30, "LOW", 5)), stats);
+
+        List<DroneCapabilityIndex.Selection> first = index.ranked(5, false, false, 10);
+        assertSame(first, index.ranked(5, false, false, 10));
+        index.ranked(20, false, false, 10);
+        index.ranked(5, true, false, 10);
+        assertEquals(1, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(3, index.cachedRankings());
+
+        // a rebuilt index starts with no rankings; the counts carry on
+        DroneCapabilityIndex next = DroneCapabilityIndex.build(fleet, FleetFingerprint.of(fleet), 2,
+                Map.of("drn-small", plan("drn-small", 90, "HIGH", 0)), stats);
+        assertEquals(0, next.cachedRankings());
+        assertEquals(List.of("drn-large", "drn-cold", "drn-small"),
+                next.ranked(5, false, false, 10).stream().map(sel -> sel.drone().getId()).toList());
+        assertEquals(4, stats.misses());
+        assertSame(first, index.ranked(5, false, false, 10));
+    }
+
+    @Test
+    void equalScoresKeepFleetOrder() {
+        Drone first = drone("drn-1", 20, false, false);
+        Drone second = drone("drn-2", 20, false, false);
+        DroneCapabilityIndex index = build(new Drone[]{first, second});
+
+        assertEquals("drn-1", index.best(10, false, false).drone().getId());
+        assertNull(index.best(10, false, false).plan());
+    }
+
+    private DroneCapabilityIndex build(Drone[] fleet, MaintenancePlan... plans) {
+        Map<String, MaintenancePlan> byId = new HashMap<>();
+        for (MaintenancePlan plan : plans) {
+            byId.put(plan.getDroneId(), plan);
+        }
+        DroneCapabilityIndex index = DroneCapabilityIndex.build(fleet, FleetFingerprint.of(fleet), 1, byId);
+        assertTrue(index.isBuiltFor(FleetFingerprint.of(fleet), 1));
+        return index;
+    }
+
+    private Drone drone(String id, double capacity, boolean cooling, boolean heating) {
+        Drone drone = new Drone();
+        drone.setId(id);
+        DroneCapability capability = new DroneCapability();
+        capability.setCapacity(capacity);
+        capability.setCooling(cooling);
+        capability.setHeating(heating);
+        capability.setMaxMoves(60);
+        drone.setCapability(capability);
+        return drone;
+    }
+
+    private MaintenancePlan plan(String droneId, double riskScore, String riskLevel, int missionBuffer) {
+        MaintenancePlan plan = new MaintenancePlan();
+        plan.setDroneId(droneId);
+        plan.setRiskScore(riskScore);
+        plan.setRiskLevel(riskLevel);
+        plan.setMissionBuffer(missionBuffer);
+        return plan;
+    }
+}
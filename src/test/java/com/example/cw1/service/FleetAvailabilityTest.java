@@ -0,0 +1,133 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.Drone;
+import com.example.cw1.dto.DroneCapability;
+import com.example.cw1.dto.DroneWeeklyAvailability;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetAvailabilityTest {
+
+    @Test
+    void bitmapAgreesWithSlotCheckForEveryMinuteOfTheWeek() {
+        Drone drone = droneWith(
+                slot(DayOfWeek.MONDAY, "08:00", "12:30"),
+                slot(DayOfWeek.WEDNESDAY, "00:00:00", "23:59:59"),
+                slot(DayOfWeek.FRIDAY, "17:15:30", "18:00"),
+                slot(DayOfWeek.SUNDAY, "22:00", "06:00"));
+        FleetAvailability fleet = FleetAvailability.compile(new Drone[]{drone}, 1L);
+        LocalDate monday = LocalDate.of(2025, 1, 6);
+
+        for (int day = 0; day < 7; day++) {
+            LocalDate date = monday.plusDays(day);
+            for (int m = 0; m < FleetAvailability.MINUTES_PER_DAY; m++) {
+                LocalTime time = LocalTime.of(m / 60, m % 60);
+                boolean expected = drone.getWeeklyAvailabilities().stream().anyMatch(s -> s.matches(date, time));
+                int minute = FleetAvailability.minuteOfWeek(date, time);
+                assertEquals(expected, fleet.availableAt(0, minute), date + " " + time);
+            }
+        }
+    }
+
+    @Test
+    void malformedSlotTimesAreRejectedWhenSet() {
+        assertThrows(IllegalArgumentException.class, () -> slot(DayOfWeek.MONDAY, "8am", "12:00"));
+    }
+
+    @Test
+    void timesWithSecondsAreNotAnsweredFromBitmaps() {
+        assertEquals(-1, FleetAvailability.minuteOfWeek(LocalDate.of(2025, 1, 6), LocalTime.of(10, 0, 30)));
+        assertEquals(600, FleetAvailability.minuteOfWeek(LocalDate.of(2025, 1, 6), LocalTime.of(10, 0)));
+        assertEquals(FleetAvailability.MINUTES_PER_WEEK - 1,
+                FleetAvailability.minuteOfWeek(LocalDate.of(2025, 1, 12), LocalTime.of(23, 59)));
+    }
+
+    @Test
+    void dronesWithoutScheduleAreAlwaysAvailableAndMalformedOnesAreNotCompiled() {
+        Drone free = new Drone();
+        Drone broken = droneWith(slot(DayOfWeek.MONDAY, null, "12:00"));
+        FleetAvailability fleet = FleetAvailability.compile(new Drone[]{free, broken, null}, 2L);
+
+        assertTrue(fleet.isCompiled(0));
+        assertTrue(fleet.availableAt(0, 0));
+        assertFalse(fleet.isCompiled(1));
+        assertFalse(fleet.isCompiled(2));
+        assertEquals(2L, fleet.version());
+    }
+
+    @Test
+    void invertedIndexAgreesWithPerDroneChecks() {
+        Random random = new Random(42);
+        Drone[] drones = new Drone[150];
+        for (int i = 0; i < drones.length; i++) {
+            List<DroneWeeklyAvailability> slots = new ArrayList<>();
+            for (int s = random.nextInt(3); s > 0; s--) {
+                int from = random.nextInt(20);
+                slots.add(slot(DayOfWeek.of(1 + random.nextInt(7)),
+                        String.format("%02d:%02d", from, random.nextInt(60)),
+                        String.format("%02d:00", from + 1 + random.nextInt(4))));
+            }
+            DroneCapability capability = new DroneCapability();
+            capability.setCapacity(random.nextInt(10));
+            capability.setCooling(random.nextBoolean());
+            capability.setHeating(random.nextBoolean());
+            drones[i] = droneWith(slots.toArray(new DroneWeeklyAvailability[0]));
+            drones[i].setCapability(capability);
+        }
+        FleetAvailability fleet = FleetAvailability.compile(drones, 3L);
+        assertTrue(fleet.hasSegmentIndex());
+        assertTrue(fleet.segmentCount() < FleetAvailability.MINUTES_PER_WEEK);
+        // over the memory cap the per-minute bitsets are skipped and the per-drone bitmaps answer instead
+        FleetAvailability capped = FleetAvailability.compile(drones, 3L, fleet.segmentCount() * 3L - 1);
+        assertFalse(capped.hasSegmentIndex());
+        assertEquals(fleet.segmentCount(), capped.segmentCount());
+
+        for (int q = 0; q < 500; q++) {
+            double capacity = random.nextInt(12);
+            boolean cooling = random.nextBoolean();
+            boolean heating = random.nextBoolean();
+            int[] minutes = new int[1 + random.nextInt(2)];
+            for (int j = 0; j < minutes.length; j++) {
+                minutes[j] = random.nextInt(FleetAvailability.MINUTES_PER_WEEK);
+            }
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < drones.length; i++) {
+                DroneCapability c = drones[i].getCapability();
+                boolean ok = c.supportsCapacity(capacity) && c.supportsTemperature(cooling, heating);
+                for (int minute : minutes) {
+                    ok &= fleet.availableAt(i, minute);
+                }
+                if (ok) {
+                    expected.add(i);
+                }
+            }
+            int[] expectedIndices = expected.stream().mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(expectedIndices, fleet.query(capacity, cooling, heating, minutes));
+            assertArrayEquals(expectedIndices, capped.query(capacity, cooling, heating, minutes));
+        }
+    }
+
+    private static Drone droneWith(DroneWeeklyAvailability... slots) {
+        Drone drone = new Drone();
+        drone.setId("drn");
+        drone.setWeeklyAvailabilities(List.of(slots));
+        return drone;
+    }
+
+    private static DroneWeeklyAvailability slot(DayOfWeek day, String from, String to) {
+        DroneWeeklyAvailability slot = new DroneWeeklyAvailability();
+        slot.setDay(day);
+        slot.setFrom(from);
+        slot.setTo(to);
+        return slot;
+    }
+}
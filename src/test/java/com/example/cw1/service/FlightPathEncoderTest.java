@@ -0,0 +1,94 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.DeliveryFlightDto;
+import com.example.cw1.dto.DeliveryPathResponse;
+import com.example.cw1.dto.DronePathDto;
+import com.example.cw1.dto.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightPathEncoderTest {
+
+    @Test
+    void polylineMatchesReferenceExample() {
+        List<Position> path = List.of(
+                new Position(-120.2, 38.5),
+                new Position(-120.95, 40.7),
+                new Position(-126.453, 43.252)
+        );
+
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", FlightPathEncoder.polyline(path));
+    }
+
+    @Test
+    void varintRoundTripsWithinQuantization() {
+        List<Position> path = List.of(
+                new Position(-3.186874, 55.944494),
+                new Position(-3.18672, 55.94465),
+                new Position(-3.186574, 55.944794)
+        );
+
+        List<Position> decoded = FlightPathEncoder.decodeVarint(FlightPathEncoder.varint(path));
+
+        assertEquals(path.size(), decoded.size());
+        for (int i = 0; i < path.size(); i++) {
+            assertEquals(path.get(i).getLng(), decoded.get(i).getLng(), 1e-7);
+            assertEquals(path.get(i).getLat(), decoded.get(i).getLat(), 1e-7);
+        }
+    }
+
+    @Test
+    void waypointsKeepStartHoverAndEnd() {
+        Position start = new Position(0.0, 0.0);
+        Position target = new Position(0.0003, 0.0003);
+        List<Position> path = List.of(
+                start,
+                new Position(0.0001, 0.0001),
+                new Position(0.0002, 0.0002),
+                target,
+                new Position(0.0003, 0.0003),
+                new Position(0.00015, 0.00015),
+                new Position(0.0, 0.0)
+        );
+
+        List<Position> waypoints = FlightPathEncoder.waypoints(path);
+
+        assertEquals(3, waypoints.size());
+        assertEquals(0.0003, waypoints.get(1).getLng());
+        assertEquals(0.0, waypoints.get(2).getLat());
+    }
+
+    @Test
+    void encodeLeavesOriginalResponseUntouched() {
+        DeliveryFlightDto flight = new DeliveryFlightDto();
+        flight.setDeliveryId(7);
+        flight.setFlightPath(List.of(new Position(1.0, 2.0), new Position(1.0, 2.0)));
+        DronePathDto dronePath = new DronePathDto();
+        dronePath.setDroneId("drn-1");
+        dronePath.setDeliveries(List.of(flight));
+        DeliveryPathResponse response = new DeliveryPathResponse();
+        response.setTotalMoves(1);
+        response.setDronePaths(List.of(dronePath));
+
+        DeliveryPathResponse encoded = FlightPathEncoder.encode(response, PathEncoding.POLYLINE);
+
+        DeliveryFlightDto encodedFlight = encoded.getDronePaths().get(0).getDeliveries().get(0);
+        assertNull(encodedFlight.getFlightPath());
+        assertEquals("polyline", encodedFlight.getEncoding());
+        assertNotNull(encodedFlight.getEncodedPath());
+        assertEquals(7, encodedFlight.getDeliveryId());
+        assertNotNull(flight.getFlightPath());
+        assertSame(response, FlightPathEncoder.encode(response, PathEncoding.JSON));
+    }
+
+    @Test
+    void resolvesEncodingFromParameterOrAcceptHeader() {
+        assertEquals(PathEncoding.VARINT, PathEncoding.resolve("VarInt", null));
+        assertEquals(PathEncoding.WAYPOINTS, PathEncoding.resolve(null, "application/vnd.ilp.waypoints+json"));
+        assertEquals(PathEncoding.JSON, PathEncoding.resolve(null, "application/json"));
+        assertThrows(IllegalArgumentException.class, () -> PathEncoding.resolve("gzip", null));
+    }
+}
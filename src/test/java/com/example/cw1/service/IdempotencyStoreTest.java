@@ -0,0 +1,192 @@
+package com.example.cw1.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final IdempotencyStore store = new IdempotencyStore(60, 100, now::get);
+
+    @Test
+    void replaysStoredResultWithinTtl() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = store.execute("key-1", "body", () -> "result-" + calls.incrementAndGet());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        String second = store.execute("key-1", "body", () -> "result-" + calls.incrementAndGet());
+
+        assertEquals("result-1", first);
+        assertEquals("result-1", second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void recomputesAfterTtlExpires() {
+        AtomicInteger calls = new AtomicInteger();
+
+        store.execute("key-1", "body", () -> calls.incrementAndGet());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        int second = store.execute("key-1", "body", () -> calls.incrementAndGet());
+
+        assertEquals(2, second);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertEquals(0, store.execute("key-2", "body", () -> 0));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void rejectsKeyReusedForDifferentRequest() {
+        store.execute("key-1", "body-a", () -> "a");
+
+        assertThrows(IllegalArgumentException.class, () -> store.execute("key-1", "body-b", () -> "b"));
+    }
+
+    @Test
+    void blankKeyBypassesStore() {
+        AtomicInteger calls = new AtomicInteger();
+
+        store.execute(null, "body", calls::incrementAndGet);
+        store.execute(" ", "body", calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void failedRequestIsForgotten() {
+        assertThrows(IllegalStateException.class, () -> store.execute("key-1", "body", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("ok", store.execute("key-1", "body", () -> "ok"));
+    }
+
+    @Test
+    void errorInRequestReleasesTheKey() {
+        assertThrows(StackOverflowError.class, () -> store.execute("key-1", "body", () -> {
+            throw new StackOverflowError();
+        }));
+
+        assertEquals(0, store.size());
+        assertEquals("ok", store.execute("key-1", "body", () -> "ok"));
+    }
+
+    @Test
+    void ttlStartsWhenTheResultCompletes() {
+        AtomicInteger calls = new AtomicInteger();
+
+        store.execute("key-1", "body", () -> {
+            now.addAndGet(TimeUnit.SECONDS.toNanos(55));
+            return calls.incrementAndGet();
+        });
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        assertEquals(1, store.execute("key-1", "body", () -> calls.incrementAndGet()));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void retryWhileInFlightWaitsForOriginalResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> original = executor.submit(() -> store.execute("key-1", "body", () -> {
+                started.countDown();
+                await(release);
+                return calls.incrementAndGet();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Integer> retry = executor.submit(() -> store.execute("key-1", "body", calls::incrementAndGet));
+
+            release.countDown();
+
+            assertEquals(1, original.get(5, TimeUnit.SECONDS));
+            assertEquals(1, retry.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void fullStoreEvictsOldestFinishedKeyAndKeepsTheNewOne() {
+        IdempotencyStore small = new IdempotencyStore(60, 2, now::get);
+        AtomicInteger calls = new AtomicInteger();
+        small.execute("key-1", "body", calls::incrementAndGet);
+        small.execute("key-2", "body", calls::incrementAndGet);
+
+        small.execute("key-3", "body", calls::incrementAndGet);
+
+        assertEquals(2, small.size());
+        assertEquals(3, small.execute("key-3", "body", calls::incrementAndGet));
+        assertEquals(2, small.execute("key-2", "body", calls::incrementAndGet));
+        assertEquals(4, small.execute("key-1", "body", calls::incrementAndGet));
+    }
+
+    @Test
+    void fullStoreOfInFlightRequestsTurnsNewKeysAway() throws Exception {
+        IdempotencyStore single = new IdempotencyStore(60, 1, now::get);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> original = executor.submit(() -> single.execute("key-1", "body", () -> {
+                started.countDown();
+                await(release);
+                return "done";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(IdempotencyStore.RetryLaterException.class, () -> single.execute("key-2", "body", () -> "x"));
+
+            release.countDown();
+            assertEquals("done", original.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void retryGivesUpWhenItsBudgetRunsOut() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> original = executor.submit(() -> store.execute("key-1", "body", () -> {
+                started.countDown();
+                await(release);
+                return "done";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(IdempotencyStore.RetryLaterException.class,
+                    () -> store.execute("key-1", "body", PlanningBudget.ofMillis(50), () -> "again"));
+
+            release.countDown();
+            assertEquals("done", original.get(5, TimeUnit.SECONDS));
+            assertEquals("done", store.execute("key-1", "body", () -> "again"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.cw1.service;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import com.example.cw1.dto.Drone;
 import com.example.cw1.dto.DroneCapability;
 import com.example.cw1.dto.MaintenanceLog;
@@ -14,11 +18,15 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.lenient;
@@ -293,6 +301,36 @@ class MaintenanceServiceTest {
         }
     }
 
+    @Test
+    void failingPlanListenerIsLoggedByNameAndOthersStillRun() {
+        Logger logger = (Logger) LoggerFactory.getLogger(MaintenanceService.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        List<String> notified = new ArrayList<>();
+        maintenanceService.addPlanListener("broken", plan -> {
+            throw new IllegalStateException("listener bug");
+        });
+        maintenanceService.addPlanListener("recorder", plan -> notified.add(plan.getDroneId()));
+        try {
+            MaintenanceLog log = new MaintenanceLog();
+            log.setDroneId("drn-test-001");
+            log.setFlightHours(1.0);
+            maintenanceService.recordLog(log);
+        } finally {
+            logger.detachAppender(appender);
+        }
+
+        assertEquals(List.of("drn-test-001"), notified);
+        ILoggingEvent event = appender.list.stream()
+                .filter(e -> e.getLevel() == Level.ERROR)
+                .findFirst()
+                .orElseThrow();
+        assertTrue(event.getFormattedMessage().contains("'broken'"));
+        assertTrue(event.getFormattedMessage().contains("drn-test-001"));
+        assertEquals("listener bug", event.getThrowableProxy().getMessage());
+    }
+
     @Test
     void verifyHighRiskClassification() {
         // Create conditions that should produce HIGH risk (score >= 70)
@@ -374,6 +412,56 @@ class MaintenanceServiceTest {
         assertNull(result);
     }
 
+    @Test
+    void snapshotsMatchSingleSnapshotsForEachDrone() {
+        MaintenanceLog log = new MaintenanceLog();
+        log.setDroneId("drn-test-001");
+        log.setFlightHours(12.0);
+        log.setMissions(6);
+        log.setBatteryHealth(0.7);
+        maintenanceService.recordLog(log);
+
+        Drone other = createMockDrone("drn-test-002", 10.0, 50, false, false);
+        Drone[] fleet = new Drone[]{createMockDrone("drn-test-001", 25.0, 100, true, false), other};
+
+        Map<String, MaintenancePlan> plans = maintenanceService.snapshots(
+                List.of("drn-test-001", "drn-test-002", "drn-test-001"), fleet);
+
+        assertEquals(2, plans.size());
+        MaintenancePlan single = maintenanceService.snapshot("drn-test-001");
+        assertEquals(single.getRiskScore(), plans.get("drn-test-001").getRiskScore());
+        assertEquals(single.getRiskLevel(), plans.get("drn-test-001").getRiskLevel());
+        assertEquals("drn-test-002", plans.get("drn-test-002").getDroneId());
+    }
+
+    @Test
+    void planListenersReceiveRefreshedPlans() {
+        List<MaintenancePlan> received = new ArrayList<>();
+        maintenanceService.addPlanListener(received::add);
+
+        MaintenanceLog log = new MaintenanceLog();
+        log.setDroneId("drn-test-001");
+        log.setFlightHours(3.0);
+        maintenanceService.recordLog(log);
+
+        MaintenanceLog batched = new MaintenanceLog();
+        batched.setDroneId("drn-test-001");
+        batched.setFlightHours(4.0);
+        MaintenancePlanRequest request = new MaintenancePlanRequest();
+        request.setNewLogs(List.of(batched));
+        request.setDroneIds(List.of("drn-other"));
+        maintenanceService.plan(request);
+
+        assertEquals(2, received.size());
+        assertEquals("drn-test-001", received.get(1).getDroneId());
+    }
+
+    @Test
+    void snapshotsReturnsEmptyMapForEmptyIds() {
+        assertTrue(maintenanceService.snapshots(List.of(), null).isEmpty());
+        assertTrue(maintenanceService.snapshots(null, null).isEmpty());
+    }
+
     @Test
     void planWithNullRequest() {
         // Test passing null request to plan()
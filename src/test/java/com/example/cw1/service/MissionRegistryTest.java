@@ -0,0 +1,62 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.MedDispatchRec;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MissionRegistryTest {
+
+    @Test
+    void replanningTheSameDeliveriesReplacesTheMission() {
+        MissionRegistry registry = new MissionRegistry(10);
+        registry.register(registry.nextPlanId(), List.of(rec(1), rec(2)), new int[]{3, 4}, 7, "drn-a", "LOW");
+        registry.register(registry.nextPlanId(), List.of(rec(1), rec(2)), new int[]{3, 4}, 7, "drn-b", "LOW");
+
+        assertEquals(1, registry.size());
+        assertTrue(registry.missionsFor("drn-a").isEmpty());
+        assertEquals(1, registry.missionsFor("drn-b").size());
+    }
+
+    @Test
+    void forgetsTheOldestMissionsBeyondCapacity() {
+        MissionRegistry registry = new MissionRegistry(2);
+        for (int i = 1; i <= 3; i++) {
+            registry.register(registry.nextPlanId(), List.of(rec(i)), new int[]{1}, 1, "drn-" + i, null);
+        }
+
+        assertEquals(2, registry.size());
+        assertTrue(registry.missionsFor("drn-1").isEmpty());
+    }
+
+    @Test
+    void onlyATurnToHighRiskAffectsMissions() {
+        MissionRegistry registry = new MissionRegistry(10);
+        long plan = registry.nextPlanId();
+        registry.register(plan, List.of(rec(1)), new int[]{1}, 1, "drn-a", "LOW");
+        registry.register(plan, List.of(rec(2)), new int[]{1}, 1, "drn-b", "HIGH");
+
+        assertTrue(registry.riskChanged("drn-a", "MEDIUM").isEmpty());
+        assertTrue(registry.riskChanged("drn-b", "HIGH").isEmpty());
+        List<MissionRegistry.Mission> affected = registry.riskChanged("drn-a", "HIGH");
+        assertEquals(1, affected.size());
+        assertTrue(registry.riskChanged("drn-a", "HIGH").isEmpty());
+        assertEquals(Set.of("drn-a", "drn-b"), registry.dronesOf(plan));
+
+        registry.reassign(affected.get(0), "drn-c", "LOW");
+        registry.reassign(affected.get(0), "drn-d", "LOW");
+
+        assertEquals(1, registry.missionsFor("drn-c").size());
+        assertTrue(registry.missionsFor("drn-d").isEmpty());
+        assertEquals(1, registry.reassigned());
+    }
+
+    private static MedDispatchRec rec(int id) {
+        MedDispatchRec rec = new MedDispatchRec();
+        rec.setId(id);
+        return rec;
+    }
+}
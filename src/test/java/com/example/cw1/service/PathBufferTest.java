@@ -0,0 +1,43 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.Position;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathBufferTest {
+
+    @Test
+    void appendSegmentIncludesBothEndsAndGrows() {
+        PathBuffer buffer = new PathBuffer(1);
+        buffer.appendSegment(0.0, 0.0, 0.0003, 0.0, 0.00015, false);
+
+        assertEquals(3, buffer.size());
+        assertEquals(0.0, buffer.lng(0));
+        assertEquals(0.0003, buffer.lng(2), 1e-12);
+
+        buffer.appendSegment(0.0003, 0.0, 0.0003, 0.0, 0.00015, true);
+        assertEquals(3, buffer.size());
+    }
+
+    @Test
+    void sliceSerializesLikePositionList() throws Exception {
+        PathBuffer buffer = new PathBuffer(4);
+        buffer.add(-3.186874, 55.944494);
+        buffer.add(-3.18672, 55.94465);
+        buffer.add(-3.186574, 55.944794);
+        List<Position> slice = buffer.slice(1, 3);
+        List<Position> copy = new ArrayList<>(slice);
+
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.writeValueAsString(copy), mapper.writeValueAsString(slice));
+        assertEquals(2, slice.size());
+        assertEquals(-3.18672, slice.get(0).getLng());
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.get(2));
+        assertThrows(UnsupportedOperationException.class, () -> slice.add(new Position()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.DeliveryFlightDto;
+import com.example.cw1.dto.DeliveryPathResponse;
+import com.example.cw1.dto.DronePathDto;
+import com.example.cw1.dto.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathSimplifierTest {
+
+    private final PathSimplifier simplifier = new PathSimplifier();
+
+    @Test
+    void straightLegsCollapseToTheirCorners() {
+        PathBuffer buffer = new PathBuffer(64);
+        buffer.appendSegment(0.0, 0.0, 0.003, 0.0, 0.00015, false);
+        buffer.appendSegment(0.003, 0.0, 0.003, 0.003, 0.00015, true);
+        List<Position> path = buffer.slice(0, buffer.size());
+
+        for (PathSimplification.Algorithm algorithm : PathSimplification.Algorithm.values()) {
+            List<Position> simplified = PathSimplifier.simplify(path, new PathSimplification(algorithm, 1e-6));
+
+            assertEquals(3, simplified.size(), algorithm.name());
+            assertEquals(0.003, simplified.get(1).getLng(), 1e-12);
+            assertEquals(0.0, simplified.get(1).getLat(), 1e-12);
+        }
+    }
+
+    @Test
+    void largeToleranceKeepsOnlyEndpoints() {
+        List<Position> path = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            path.add(new Position(i * 0.0001, (i % 2) * 0.00001));
+        }
+
+        List<Position> simplified = PathSimplifier.simplify(path,
+                PathSimplification.resolve("dp", null, 10));
+
+        assertEquals(2, simplified.size());
+    }
+
+    @Test
+    void simplifiedPlansAreCachedPerPlanAndSettings() {
+        DeliveryFlightDto flight = new DeliveryFlightDto();
+        flight.setDeliveryId(1);
+        flight.setFlightPath(List.of(new Position(0, 0), new Position(0.0001, 0), new Position(0.0002, 0)));
+        DronePathDto dronePath = new DronePathDto();
+        dronePath.setDroneId("drn-1");
+        dronePath.setDeliveries(List.of(flight));
+        DeliveryPathResponse plan = new DeliveryPathResponse();
+        plan.setDronePaths(List.of(dronePath));
+
+        PathSimplification settings = PathSimplification.resolve("vw", null, 8);
+        DeliveryPathResponse first = simplifier.simplify(plan, settings);
+        DeliveryPathResponse second = simplifier.simplify(plan, PathSimplification.resolve("vw", null, 8));
+
+        assertSame(first, second);
+        assertEquals(2, first.getDronePaths().get(0).getDeliveries().get(0).getFlightPath().size());
+        assertEquals(3, flight.getFlightPath().size());
+        assertSame(plan, simplifier.simplify(plan, null));
+    }
+
+    @Test
+    void freeFormTolerancesAreNotCachedAndZoomVariantsAreCapped() {
+        DeliveryPathResponse plan = new DeliveryPathResponse();
+        plan.setDronePaths(List.of());
+
+        for (int i = 1; i <= 100; i++) {
+            simplifier.simplify(plan, PathSimplification.resolve("dp", i * 1e-5, null));
+        }
+        assertEquals(0, simplifier.cachedVariants(plan));
+
+        for (int zoom = 0; zoom <= 24; zoom++) {
+            simplifier.simplify(plan, PathSimplification.resolve("dp", null, zoom));
+            simplifier.simplify(plan, PathSimplification.resolve("vw", null, zoom));
+        }
+        assertEquals(PathSimplifier.MAX_VARIANTS_PER_PLAN, simplifier.cachedVariants(plan));
+        // an explicit tolerance equal to a zoom level's is the same setting
+        assertTrue(PathSimplification.resolve("dp", PathSimplification.zoomTolerance(12), null).onZoomLadder());
+        assertTrue(PathSimplification.resolve("vw", null, null).onZoomLadder());
+    }
+
+    @Test
+    void resolveValidatesParameters() {
+        assertNull(PathSimplification.resolve(null, null, null));
+        assertEquals(PathSimplification.Algorithm.VISVALINGAM, PathSimplification.resolve("visvalingam", null, null).algorithm());
+        assertEquals(360.0 / 256.0, PathSimplification.resolve(null, null, 0).tolerance(), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> PathSimplification.resolve("spline", null, null));
+        assertThrows(IllegalArgumentException.class, () -> PathSimplification.resolve(null, -1.0, null));
+        assertThrows(IllegalArgumentException.class, () -> PathSimplification.resolve(null, null, 40));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.DeliveryPathResponse;
+import com.example.cw1.dto.MedDispatchRec;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanCacheTest {
+
+    private final PlanCache cache = new PlanCache(16);
+
+    @Test
+    void plannerErrorReleasesTheKey() {
+        List<MedDispatchRec> dispatches = List.of(dispatch(1));
+
+        assertThrows(StackOverflowError.class, () -> cache.get(dispatches, 1L, 1L, PlanningBudget.unlimited(), b -> {
+            throw new StackOverflowError();
+        }));
+        assertEquals(0, cache.size());
+
+        DeliveryPathResponse planned = new DeliveryPathResponse();
+        DeliveryPathResponse response = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> cache.get(dispatches, 1L, 1L, PlanningBudget.unlimited(), b -> planned));
+        assertSame(planned, response);
+    }
+
+    private static MedDispatchRec dispatch(int id) {
+        MedDispatchRec rec = new MedDispatchRec();
+        rec.setId(id);
+        return rec;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.MedDispatchRec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanningLanesTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PlanningLanes lanes = new PlanningLanes(registry, 1, 1, 1, 1, 1, 1, 200);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        lanes.shutdown();
+    }
+
+    @Test
+    void runsTaskAndRecordsQueueWaitPerLane() {
+        assertEquals("done", lanes.run(DispatchPriority.URGENT, () -> "done"));
+
+        assertEquals(1, lanes.queueWait(DispatchPriority.URGENT).count());
+        assertEquals(0, lanes.queueWait(DispatchPriority.BULK).count());
+        assertNotNull(registry.find("planning.lane.queue.size").tag("lane", "bulk").gauge());
+    }
+
+    @Test
+    void urgentLaneIsNotBlockedByBusyBulkLane() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        callers.submit(() -> lanes.run(DispatchPriority.BULK, () -> {
+            running.countDown();
+            return await(release);
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        assertEquals("urgent", lanes.run(DispatchPriority.URGENT, () -> "urgent"));
+        release.countDown();
+    }
+
+    @Test
+    void rejectsWorkWhenLaneIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        callers.submit(() -> lanes.run(DispatchPriority.BULK, () -> {
+            running.countDown();
+            return await(release);
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> lanes.run(DispatchPriority.BULK, () -> true));
+        waitForQueued(DispatchPriority.BULK);
+
+        assertThrows(PlanningLanes.LaneSaturatedException.class, () -> lanes.run(DispatchPriority.BULK, () -> true));
+        assertEquals(1.0, registry.find("planning.lane.rejected").tag("lane", "bulk").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    void urgentRequestCompletesWhileBulkLaneIsSaturated() throws Exception {
+        // eight callers stand in for the servlet pool; standard and bulk may hold at most half of them
+        ExecutorService servlet = Executors.newFixedThreadPool(8);
+        PlanningLanes bounded = new PlanningLanes(registry, 1, 1, 1, 1, 1, 1, 8);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            List<Future<?>> bulk = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                bulk.add(servlet.submit(() -> bounded.run(DispatchPriority.BULK, () -> await(release))));
+            }
+            Future<String> urgent = servlet.submit(() -> bounded.run(DispatchPriority.URGENT, () -> "urgent"));
+
+            assertEquals("urgent", urgent.get(5, TimeUnit.SECONDS));
+            release.countDown();
+            int rejected = 0;
+            for (Future<?> request : bulk) {
+                try {
+                    request.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertInstanceOf(PlanningLanes.LaneSaturatedException.class, e.getCause());
+                    rejected++;
+                }
+            }
+            assertTrue(rejected >= 48);
+        } finally {
+            release.countDown();
+            servlet.shutdownNow();
+            bounded.shutdown();
+        }
+    }
+
+    @Test
+    void refusesLanesThatCouldHoldMostServletThreads() {
+        assertThrows(IllegalStateException.class, () -> new PlanningLanes(registry, 2, 32, 4, 128, 2, 256, 200));
+    }
+
+    @Test
+    void resolvesPriorityFromHeaderThenDispatches() {
+        MedDispatchRec bulk = new MedDispatchRec();
+        bulk.setPriority("bulk");
+        MedDispatchRec urgent = new MedDispatchRec();
+        urgent.setPriority("Urgent");
+
+        assertEquals(DispatchPriority.BULK, DispatchPriority.resolve("bulk", List.of(urgent)));
+        assertEquals(DispatchPriority.URGENT, DispatchPriority.resolve(null, List.of(bulk, urgent)));
+        assertEquals(DispatchPriority.STANDARD, DispatchPriority.resolve(" ", List.of(new MedDispatchRec())));
+        assertThrows(IllegalArgumentException.class, () -> DispatchPriority.resolve("asap", List.of()));
+    }
+
+    private void waitForQueued(DispatchPriority priority) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            Double size = registry.find("planning.lane.queue.size").tag("lane", priority.label()).gauge().value();
+            if (size >= 1.0) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("task was not queued");
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
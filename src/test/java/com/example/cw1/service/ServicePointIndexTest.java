@@ -0,0 +1,89 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.Position;
+import com.example.cw1.dto.ServicePoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServicePointIndexTest {
+
+    @Test
+    void matchesBruteForceRoundTrips() {
+        Random random = new Random(7);
+        List<ServicePoint> depots = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            depots.add(new ServicePoint("sp-" + i, i, new Position(-3.3 + random.nextDouble() * 0.2, 55.9 + random.nextDouble() * 0.1)));
+        }
+        ServicePointIndex index = ServicePointIndex.of(depots);
+
+        for (int q = 0; q < 500; q++) {
+            double aLng = -3.3 + random.nextDouble() * 0.2;
+            double aLat = 55.9 + random.nextDouble() * 0.1;
+            double bLng = -3.3 + random.nextDouble() * 0.2;
+            double bLat = 55.9 + random.nextDouble() * 0.1;
+
+            int expected = -1;
+            double bestCost = Double.POSITIVE_INFINITY;
+            int nearest = -1;
+            double nearestDist = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < depots.size(); i++) {
+                Position p = depots.get(i).getLocation();
+                double cost = Math.hypot(p.getLng() - aLng, p.getLat() - aLat) + Math.hypot(p.getLng() - bLng, p.getLat() - bLat);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    expected = i;
+                }
+                double dist = Math.hypot(p.getLng() - aLng, p.getLat() - aLat);
+                if (dist < nearestDist) {
+                    nearestDist = dist;
+                    nearest = i;
+                }
+            }
+
+            assertEquals(expected, index.bestRoundTrip(aLng, aLat, bLng, bLat));
+            assertEquals(nearest, index.nearest(aLng, aLat));
+        }
+    }
+
+    @Test
+    void roundTripCandidatesAreSortedAndWithinSlack() {
+        List<ServicePoint> depots = List.of(
+                new ServicePoint("a", 1, new Position(0.0, 0.0)),
+                new ServicePoint("b", 2, new Position(0.0, 1.0)),
+                new ServicePoint("c", 3, new Position(0.0, 0.1)),
+                new ServicePoint("d", 4, new Position(5.0, 5.0)));
+        ServicePointIndex index = ServicePointIndex.of(depots);
+
+        int[] candidates = index.roundTripCandidates(0.0, 0.0, 0.0, 0.0, 0.5);
+
+        assertArrayEquals(new int[]{0, 2}, candidates);
+    }
+
+    @Test
+    void parsesConfiguredServicePoints() {
+        List<ServicePoint> parsed = ServicePointIndex.parse("Appleton Tower@-3.186874,55.944494; -3.17,55.98");
+
+        assertEquals(2, parsed.size());
+        assertEquals("Appleton Tower", parsed.get(0).getName());
+        assertEquals(-3.186874, parsed.get(0).getLocation().getLng());
+        assertNull(parsed.get(1).getName());
+        assertEquals(55.98, parsed.get(1).getLocation().getLat());
+        assertTrue(ServicePointIndex.parse("  ").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> ServicePointIndex.parse("x@1.0"));
+        assertThrows(IllegalArgumentException.class, () -> ServicePointIndex.parse("x@a,b"));
+    }
+
+    @Test
+    void skipsEntriesWithoutLocation() {
+        ServicePointIndex index = ServicePointIndex.of(Arrays.asList(null, new ServicePoint("x", 1, null)));
+
+        assertTrue(index.isEmpty());
+        assertEquals(-1, index.nearest(0, 0));
+    }
+}
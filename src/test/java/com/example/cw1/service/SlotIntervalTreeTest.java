@@ -0,0 +1,120 @@
+package com.example.cw1.service;
+
+import com.example.cw1.dto.Drone;
+import com.example.cw1.dto.DroneWeeklyAvailability;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotIntervalTreeTest {
+
+    private static final long HOUR = 3_600_000_000_000L;
+
+    @Test
+    void overlapQueriesMatchALinearScan() {
+        Random random = new Random(7);
+        Drone[] drones = new Drone[80];
+        for (int i = 0; i < drones.length; i++) {
+            List<DroneWeeklyAvailability> slots = new ArrayList<>();
+            for (int s = 1 + random.nextInt(4); s > 0; s--) {
+                int from = random.nextInt(22);
+                slots.add(slot(DayOfWeek.of(1 + random.nextInt(7)),
+                        String.format("%02d:%02d", from, random.nextInt(60)),
+                        String.format("%02d:00", from + 1 + random.nextInt(23 - from))));
+            }
+            drones[i] = new Drone();
+            drones[i].setWeeklyAvailabilities(slots);
+        }
+        SlotIntervalTree tree = SlotIntervalTree.build(drones, 1L);
+
+        for (int q = 0; q < 300; q++) {
+            long from = (long) (random.nextDouble() * 7 * 24 * HOUR);
+            long to = from + (long) (random.nextDouble() * 6 * HOUR);
+
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < drones.length; i++) {
+                for (DroneWeeklyAvailability slot : drones[i].getWeeklyAvailabilities()) {
+                    long base = (slot.getDay().getValue() - 1) * SlotIntervalTree.NANOS_PER_DAY;
+                    long start = base + slot.fromNanoOfDay();
+                    long end = base + slot.toNanoOfDay();
+                    if (start < to && end > from) {
+                        expected.add(i + "@" + start);
+                    }
+                }
+            }
+            List<String> actual = new ArrayList<>();
+            tree.overlapping(from, to, (drone, start, end) -> actual.add(drone + "@" + start));
+
+            expected.sort(null);
+            actual.sort(null);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void dronesWithoutSlotsAreUnrestrictedAndEmptySlotsAreSkipped() {
+        Drone free = new Drone();
+        Drone overnight = new Drone();
+        overnight.setWeeklyAvailabilities(List.of(slot(DayOfWeek.SUNDAY, "22:00", "06:00")));
+        SlotIntervalTree tree = SlotIntervalTree.build(new Drone[]{free, overnight, null}, 1L);
+
+        assertTrue(tree.isUnrestricted(0));
+        assertFalse(tree.isUnrestricted(1));
+        assertFalse(tree.isUnrestricted(2));
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    void freeAtATimeAgreesWithThePerDispatchCheckAtSlotBoundaries() {
+        DroneWeeklyAvailability noEnd = new DroneWeeklyAvailability();
+        noEnd.setDay(DayOfWeek.MONDAY);
+        noEnd.setFrom("09:00");
+        DroneWeeklyAvailability noDay = slot(DayOfWeek.MONDAY, "09:00", "10:00");
+        noDay.setDay(null);
+        List<List<DroneWeeklyAvailability>> fleet = List.of(
+                List.of(slot(DayOfWeek.MONDAY, "09:00:30", "10:15:00.5")),
+                List.of(slot(DayOfWeek.MONDAY, "09:00", "10:15"), slot(DayOfWeek.MONDAY, "10:15", "10:16")),
+                List.of(slot(DayOfWeek.MONDAY, "10:15", "10:15"), slot(DayOfWeek.MONDAY, "22:00", "06:00")),
+                List.of(noEnd, noDay),
+                new ArrayList<>(Collections.singletonList(null)));
+        Drone[] drones = new Drone[fleet.size()];
+        for (int i = 0; i < drones.length; i++) {
+            drones[i] = new Drone();
+            drones[i].setWeeklyAvailabilities(fleet.get(i));
+        }
+        SlotIntervalTree tree = SlotIntervalTree.build(drones, 1L);
+
+        long minute = HOUR / 60;
+        long second = minute / 60;
+        long[] times = {9 * HOUR - 1, 9 * HOUR, 9 * HOUR + 30 * second - 1, 9 * HOUR + 30 * second,
+                10 * HOUR + 15 * minute - 1, 10 * HOUR + 15 * minute, 10 * HOUR + 15 * minute + second / 2 - 1,
+                10 * HOUR + 15 * minute + second / 2, 10 * HOUR + 16 * minute - 1, 10 * HOUR + 16 * minute,
+                23 * HOUR, 3 * HOUR};
+        for (long t : times) {
+            boolean[] free = new boolean[drones.length];
+            tree.overlapping(t, t + 1, (drone, start, end) -> free[drone] = true);
+            for (int i = 0; i < drones.length; i++) {
+                boolean expected = false;
+                for (DroneWeeklyAvailability slot : drones[i].getWeeklyAvailabilities()) {
+                    expected |= slot != null && slot.offersTime() && slot.matches(DayOfWeek.MONDAY, t);
+                }
+                assertEquals(expected, free[i], "drone " + i + " at " + t);
+            }
+        }
+        assertEquals(3, tree.size());
+    }
+
+    private static DroneWeeklyAvailability slot(DayOfWeek day, String from, String to) {
+        DroneWeeklyAvailability slot = new DroneWeeklyAvailability();
+        slot.setDay(day);
+        slot.setFrom(from);
+        slot.setTo(to);
+        return slot;
+    }
+}